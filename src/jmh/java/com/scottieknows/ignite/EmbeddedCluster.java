@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.BinaryConfiguration;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.communication.tcp.TcpCommunicationSpi;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+
+/**
+ * Ignite server nodes and one client node running inside the benchmark JVM.  Discovery is bound to
+ * the loopback interface on ports that do not collide with a locally running cluster, so the
+ * benchmarks run offline and never join anything else.
+ */
+public class EmbeddedCluster implements AutoCloseable {
+
+    private static final String LOCAL_HOST = "127.0.0.1";
+    private static final int DISCOVERY_PORT = 48500;
+    private static final int COMMUNICATION_PORT = 48100;
+    // per node, benchmarks with more data raise it with -DembeddedCluster.dataRegionSize
+    private static final long DATA_REGION_SIZE = Long.getLong("embeddedCluster.dataRegionSize", 256L * 1024 * 1024);
+
+    static {
+        System.setProperty(IgniteSystemProperties.IGNITE_UPDATE_NOTIFIER, "false");
+        System.setProperty(IgniteSystemProperties.IGNITE_QUIET, "true");
+        System.setProperty(IgniteSystemProperties.IGNITE_NO_ASCII, "true");
+        System.setProperty(IgniteSystemProperties.IGNITE_PERFORMANCE_SUGGESTIONS_DISABLED, "true");
+    }
+
+    private final Path workDirectory;
+    private final List<Ignite> servers = new ArrayList<>();
+    private final Ignite client;
+
+    /**
+     * @param serverNodes number of server nodes, at most 10
+     * @param caches static caches started on the server nodes
+     */
+    public EmbeddedCluster(int serverNodes, CacheConfiguration<?, ?>... caches) throws IOException {
+        this(serverNodes, new BinaryConfiguration(), caches);
+    }
+
+    /**
+     * @param binaryConfiguration binary configuration of every node
+     */
+    public EmbeddedCluster(int serverNodes, BinaryConfiguration binaryConfiguration, CacheConfiguration<?, ?>... caches)
+            throws IOException {
+        workDirectory = Files.createTempDirectory("ignite-bench");
+        for (int i = 0; i < serverNodes; i++) {
+            IgniteConfiguration cfg = configuration("server" + i, serverNodes);
+            cfg.setBinaryConfiguration(binaryConfiguration);
+            cfg.setCacheConfiguration(caches);
+            servers.add(Ignition.start(cfg));
+        }
+        IgniteConfiguration cfg = configuration("client", serverNodes);
+        cfg.setBinaryConfiguration(binaryConfiguration);
+        cfg.setClientMode(true);
+        client = Ignition.start(cfg);
+    }
+
+    private IgniteConfiguration configuration(String name, int serverNodes) {
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        cfg.setIgniteInstanceName(name);
+        cfg.setWorkDirectory(workDirectory.resolve(name).toString());
+        cfg.setLocalHost(LOCAL_HOST);
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        // a range needs two distinct ports
+        ipFinder.setAddresses(Collections.singletonList(LOCAL_HOST + ":" + DISCOVERY_PORT
+            + ((serverNodes > 1) ? ".." + (DISCOVERY_PORT + serverNodes - 1) : "")));
+        TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
+        discoverySpi.setIpFinder(ipFinder);
+        discoverySpi.setLocalPort(DISCOVERY_PORT);
+        discoverySpi.setLocalPortRange(10);
+        cfg.setDiscoverySpi(discoverySpi);
+        TcpCommunicationSpi communicationSpi = new TcpCommunicationSpi();
+        communicationSpi.setLocalPort(COMMUNICATION_PORT);
+        cfg.setCommunicationSpi(communicationSpi);
+        // the default region takes 20% of physical memory per node
+        DataStorageConfiguration dataStorage = new DataStorageConfiguration();
+        dataStorage.setDefaultDataRegionConfiguration(
+            new DataRegionConfiguration().setName("default").setMaxSize(DATA_REGION_SIZE));
+        cfg.setDataStorageConfiguration(dataStorage);
+        return cfg;
+    }
+
+    public Ignite getClient() {
+        return client;
+    }
+
+    public List<Ignite> getServers() {
+        return servers;
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+        servers.forEach(Ignite::close);
+        Files.walk(workDirectory).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+    }
+
+}
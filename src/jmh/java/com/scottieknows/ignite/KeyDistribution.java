@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * How benchmark keys are drawn from {@code [0, keySpace)}.  Keys are sampled up front so that drawing
+ * one inside a benchmark method is an array read.
+ */
+public enum KeyDistribution {
+
+    UNIFORM {
+        @Override
+        int next(Random random, double[] cdf, int keySpace) {
+            return random.nextInt(keySpace);
+        }
+    },
+
+    /**
+     * Zipf with exponent {@value #ZIPF_EXPONENT}, key 0 is the most popular.
+     */
+    ZIPFIAN {
+        @Override
+        double[] cdf(int keySpace) {
+            double[] cdf = new double[keySpace];
+            double sum = 0;
+            for (int i = 0; i < keySpace; i++) {
+                sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < keySpace; i++) {
+                cdf[i] /= sum;
+            }
+            return cdf;
+        }
+
+        @Override
+        int next(Random random, double[] cdf, int keySpace) {
+            int i = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min((i < 0) ? -i - 1 : i, keySpace - 1);
+        }
+    };
+
+    static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * @return {@code count} keys, the same for a given seed
+     */
+    public int[] sample(int keySpace, int count, long seed) {
+        Random random = new Random(seed);
+        double[] cdf = cdf(keySpace);
+        int[] keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = next(random, cdf, keySpace);
+        }
+        return keys;
+    }
+
+    double[] cdf(int keySpace) {
+        return null;
+    }
+
+    abstract int next(Random random, double[] cdf, int keySpace);
+
+}
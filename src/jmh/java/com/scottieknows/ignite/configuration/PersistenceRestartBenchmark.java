@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.communication.tcp.TcpCommunicationSpi;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottieknows.ignite.configuration.DataStorageProperties.DataRegion;
+
+/**
+ * Time from starting a server node until it serves {@code reads} random keys of a cache holding
+ * {@code entries} entries.
+ * <ul>
+ * <li>{@code PERSISTENCE} restarts a node with native persistence that wrote the entries before,
+ * activates it with {@link ClusterActivator} and reads from the disk backed pages.</li>
+ * <li>{@code RELOAD} starts an in-memory node and streams the entries in again.  They are generated
+ * in this JVM, so this is a lower bound for reloading from a real source of truth.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=1)
+@Measurement(iterations=3)
+@Fork(value=1, jvmArgsAppend={"-Xmx1g"})
+public class PersistenceRestartBenchmark {
+
+    private static final String CACHE = "restart";
+    private static final long REGION_SIZE = 1024L * 1024 * 1024;
+
+    static {
+        System.setProperty(IgniteSystemProperties.IGNITE_UPDATE_NOTIFIER, "false");
+        System.setProperty(IgniteSystemProperties.IGNITE_QUIET, "true");
+        System.setProperty(IgniteSystemProperties.IGNITE_NO_ASCII, "true");
+    }
+
+    public enum Restart { RELOAD, PERSISTENCE }
+
+    @Param({"RELOAD", "PERSISTENCE"})
+    private Restart restart;
+
+    @Param({"1000000"})
+    private int entries;
+
+    @Param({"256"})
+    private int valueSize;
+
+    @Param({"1000"})
+    private int reads;
+
+    private Path workDirectory;
+    private String value;
+    private Ignite ignite;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        workDirectory = Files.createTempDirectory("ignite-restart");
+        value = RandomStringUtils.randomAlphanumeric(valueSize);
+        if (restart == Restart.PERSISTENCE) {
+            IgniteLauncher igniteLauncher = launch();
+            new ClusterActivator(igniteLauncher, 1, false).activate();
+            load(igniteLauncher.getIgnite());
+            igniteLauncher.getIgnite().close();
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        ignite.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.walk(workDirectory).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+    }
+
+    @Benchmark
+    public int timeToServing() {
+        IgniteLauncher igniteLauncher = launch();
+        ignite = igniteLauncher.getIgnite();
+        if (restart == Restart.PERSISTENCE) {
+            new ClusterActivator(igniteLauncher, 1, false).activate();
+        } else {
+            load(ignite);
+        }
+        IgniteCache<Integer, String> cache = ignite.cache(CACHE);
+        int found = 0;
+        for (int i = 0; i < reads; i++) {
+            if (cache.get(ThreadLocalRandom.current().nextInt(entries)) != null) {
+                found++;
+            }
+        }
+        if (found != reads) {
+            throw new IllegalStateException(found + " of " + reads + " keys found");
+        }
+        return found;
+    }
+
+    private void load(Ignite ignite) {
+        ignite.getOrCreateCache(CACHE);
+        try (IgniteDataStreamer<Integer, String> streamer = ignite.dataStreamer(CACHE)) {
+            for (int i = 0; i < entries; i++) {
+                streamer.addData(i, value);
+            }
+        }
+    }
+
+    private IgniteLauncher launch() {
+        DataRegion region = new DataRegion();
+        region.setMaxSize(REGION_SIZE);
+        region.setPersistenceEnabled(restart == Restart.PERSISTENCE);
+        DataStorageProperties dataStorageProperties = new DataStorageProperties();
+        dataStorageProperties.getRegions().put("default", region);
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        cfg.setIgniteInstanceName("restart");
+        // the same consistent id and work directory every time, that is where the persisted pages are
+        cfg.setConsistentId("restart");
+        cfg.setWorkDirectory(workDirectory.toString());
+        cfg.setLocalHost("127.0.0.1");
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        ipFinder.setAddresses(Collections.singletonList("127.0.0.1:48600"));
+        TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
+        discoverySpi.setIpFinder(ipFinder);
+        discoverySpi.setLocalPort(48600);
+        cfg.setDiscoverySpi(discoverySpi);
+        TcpCommunicationSpi communicationSpi = new TcpCommunicationSpi();
+        communicationSpi.setLocalPort(48200);
+        cfg.setCommunicationSpi(communicationSpi);
+        cfg.setDataStorageConfiguration(dataStorageProperties.toDataStorageConfiguration());
+        IgniteLauncher igniteLauncher = new IgniteLauncher(cfg);
+        igniteLauncher.launch();
+        return igniteLauncher;
+    }
+
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.api.model.PodStatus;
+import io.fabric8.kubernetes.api.model.WatchEvent;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+
+/**
+ * Cost of keeping {@link IgnitePodResolver} in sync with a busy namespace, and of joining the cluster
+ * with the addresses it ends up with.  The namespace holds {@code otherPods} pods of other apps that
+ * churn {@code churnEvents} times, plus one ready ignite pod and {@code terminatingPods} ignite pods
+ * that are shutting down.
+ * <ul>
+ * <li>{@code SERVER} is the current behavior, the mock api server applies the label selector and the
+ * resolver drops the terminating pods.</li>
+ * <li>{@code NONE} replays what the resolver used to receive and register: every pod and event in the
+ * namespace, with the terminating pods still registered.</li>
+ * </ul>
+ * {@code sync} reports the events the resolver's watcher received as a secondary result, JMH only
+ * shows it outside single shot mode, e.g. with {@code -bm avgt}.  {@code join} starts a
+ * client node against the registered addresses with the discovery timeouts of {@link IgniteConfig}, the
+ * terminating pods are loopback addresses that refuse connections.  An address that accepts and never
+ * answers stalls the 2.3 client join well past its timeouts, so that case is not measured.  It binds
+ * 127.0.0.1:47500, stop any local ignite node first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class PodDiscoveryBenchmark {
+
+    private static final String NAMESPACE = "bench";
+    private static final String APP_LABEL = "ignite";
+    private static final String END_VERSION = "end";
+    private static final long DISCOVERY_TIMEOUT = 3000;
+
+    static {
+        System.setProperty(IgniteSystemProperties.IGNITE_UPDATE_NOTIFIER, "false");
+        System.setProperty(IgniteSystemProperties.IGNITE_QUIET, "true");
+        System.setProperty(IgniteSystemProperties.IGNITE_NO_ASCII, "true");
+    }
+
+    public enum Filtering { NONE, SERVER }
+
+    @Param({"NONE", "SERVER"})
+    private Filtering filtering;
+
+    @Param({"2000"})
+    private int otherPods;
+
+    @Param({"10000"})
+    private int churnEvents;
+
+    @Param({"3"})
+    private int terminatingPods;
+
+    private KubernetesMockServer server;
+    private IgnitePodResolver resolver;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Delivered {
+        public long watchEvents;
+        public long addresses;
+    }
+
+    @Setup(Level.Invocation)
+    public void setupServer() {
+        server = new KubernetesMockServer(false);
+        server.init();
+        List<Pod> listed = new ArrayList<>();
+        List<Object> events = new ArrayList<>();
+        // the one pod that can be joined, on the address of the node started by the join benchmark
+        Pod ready = pod("ignite-0", APP_LABEL, "127.0.0.1", false);
+        listed.add(ready);
+        for (int i = 0; i < terminatingPods; i++) {
+            listed.add(pod("ignite-" + (i + 1), APP_LABEL, "127.0.0." + (i + 2), filtering == Filtering.SERVER));
+        }
+        if (filtering == Filtering.NONE) {
+            for (int i = 0; i < otherPods; i++) {
+                listed.add(pod("other-" + i, "other", "10.1." + (i >> 8) + "." + (i & 0xff), false));
+            }
+            for (int i = 0; i < churnEvents; i++) {
+                events.add(new WatchEvent(listed.get(1 + terminatingPods + i % otherPods), "MODIFIED"));
+            }
+        }
+        ready = pod("ignite-0", APP_LABEL, "127.0.0.1", false);
+        ready.getMetadata().setResourceVersion(END_VERSION);
+        events.add(new WatchEvent(ready, "MODIFIED"));
+        ListMeta metadata = new ListMeta();
+        metadata.setResourceVersion("1");
+        PodList list = new PodList();
+        list.setMetadata(metadata);
+        list.setItems(listed);
+        String pods = "/api/v1/namespaces/" + NAMESPACE + "/pods?labelSelector=app%3D" + APP_LABEL;
+        server.expect().withPath(pods + "&limit=" + Integer.MAX_VALUE).andReturn(200, list).once();
+        server.expect().withPath(pods + "&resourceVersion=1&watch=true").andUpgradeToWebSocket()
+            .open(events.toArray()).done().once();
+        resolver = new IgnitePodResolver();
+        resolver.setNamespace(NAMESPACE);
+        resolver.setOauthToken("token");
+        resolver.setAppLabel(APP_LABEL);
+        resolver.setListPageSize(Integer.MAX_VALUE);
+        resolver.setClient((DefaultKubernetesClient) server.createClient());
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownServer() {
+        resolver.close();
+        server.destroy();
+    }
+
+    @Benchmark
+    public void sync(Delivered delivered) throws InterruptedException {
+        resolver.init();
+        while (!END_VERSION.equals(resolver.getLastResourceVersion())) {
+            Thread.sleep(1);
+        }
+        delivered.watchEvents += resolver.getWatchEventCount();
+        delivered.addresses += resolver.getRegisteredAddresses().size();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Cluster {
+        private Ignite node;
+        private Ignite client;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            node = Ignition.start(configuration("node", Collections.singletonList(
+                new InetSocketAddress("127.0.0.1", TcpDiscoverySpi.DFLT_PORT))));
+        }
+
+        @TearDown(Level.Invocation)
+        public void stopClient() {
+            if (client != null) {
+                client.close();
+                client = null;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            node.close();
+        }
+    }
+
+    @Benchmark
+    public Ignite join(Cluster cluster) throws InterruptedException {
+        resolver.init();
+        while (!END_VERSION.equals(resolver.getLastResourceVersion())) {
+            Thread.sleep(1);
+        }
+        IgniteConfiguration cfg = configuration("client", resolver.getRegisteredAddresses());
+        cfg.setClientMode(true);
+        cluster.client = Ignition.start(cfg);
+        return cluster.client;
+    }
+
+    private static IgniteConfiguration configuration(String name, Collection<InetSocketAddress> addresses) {
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        cfg.setIgniteInstanceName(name);
+        cfg.setLocalHost("127.0.0.1");
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        ipFinder.registerAddresses(addresses);
+        TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
+        discoverySpi.setIpFinder(ipFinder);
+        discoverySpi.setJoinTimeout(DISCOVERY_TIMEOUT);
+        discoverySpi.setAckTimeout(DISCOVERY_TIMEOUT);
+        discoverySpi.setSocketTimeout(DISCOVERY_TIMEOUT);
+        discoverySpi.setNetworkTimeout(DISCOVERY_TIMEOUT);
+        cfg.setDiscoverySpi(discoverySpi);
+        return cfg;
+    }
+
+    private static Pod pod(String name, String app, String ip, boolean terminating) {
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        metadata.setNamespace(NAMESPACE);
+        metadata.setLabels(Collections.singletonMap("app", app));
+        metadata.setResourceVersion("1");
+        if (terminating) {
+            metadata.setDeletionTimestamp("2018-01-01T00:00:00Z");
+        }
+        PodCondition ready = new PodCondition();
+        ready.setType("Ready");
+        ready.setStatus("True");
+        PodStatus status = new PodStatus();
+        status.setPodIP(ip);
+        status.setPhase("Running");
+        status.setConditions(Collections.singletonList(ready));
+        Pod pod = new Pod();
+        pod.setMetadata(metadata);
+        pod.setStatus(status);
+        return pod;
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.spring.SpringCacheManager;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+
+/**
+ * Sustained write load on a spring cache with a {@link CacheSubscriptions} subscription of the
+ * client node.  The writes go through a server node, as events of the client's own updates are not
+ * buffered.  The {@code written} and {@code delivered} secondary results are the events written and
+ * delivered to the listener per second, a {@code delivered} rate below {@code written} means the
+ * subscription falls behind.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g"})
+public class CacheSubscriptionBenchmark {
+
+    private static final String CACHE = "subscribed";
+
+    @Param({"1", "2"})
+    private int serverNodes;
+
+    @Param({"64", "256"})
+    private int bufferSize;
+
+    @Param({"100"})
+    private long timeInterval;
+
+    @Param({"100"})
+    private int batchSize;
+
+    @Param({"10000"})
+    private int keySpace;
+
+    private EmbeddedCluster cluster;
+    private IgniteCache<Integer, String> cache;
+    private CacheSubscriptions.Subscription subscription;
+    private final AtomicLong received = new AtomicLong();
+    private final Map<Integer, String> batch = new TreeMap<>();
+    private String value;
+    private int nextKey;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Events {
+        public long written;
+        public long delivered;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        cluster = new EmbeddedCluster(serverNodes);
+        SpringCacheManager springCacheManager = new SpringCacheManager();
+        springCacheManager.setIgniteInstanceName(cluster.getClient().name());
+        springCacheManager.afterPropertiesSet();
+        springCacheManager.getCache(CACHE);
+        CacheSubscriptions subscriptions = new CacheSubscriptions(springCacheManager, bufferSize, timeInterval);
+        subscription = subscriptions.subscribe(CACHE, null, events -> received.addAndGet(events.size()));
+        cache = cluster.getServers().get(0).cache(CACHE);
+        value = RandomStringUtils.randomAlphanumeric(64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        subscription.close();
+        cluster.close();
+    }
+
+    @Benchmark
+    public void putAll(Events events) {
+        for (int i = 0; i < batchSize; i++) {
+            batch.put(nextKey++ % keySpace, value);
+        }
+        cache.putAll(batch);
+        batch.clear();
+        events.written += batchSize;
+        events.delivered += received.getAndSet(0);
+    }
+
+}
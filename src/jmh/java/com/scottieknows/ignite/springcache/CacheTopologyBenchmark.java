@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+import com.scottieknows.ignite.springcache.CacheTopologyProperties.CacheTopology;
+
+/**
+ * Write throughput from a client node as server nodes are added, for a replicated cache and a
+ * partitioned one, through {@link TopologySpringCacheManager}.  A replicated put is written to every
+ * server node, a partitioned one to its primary and {@code backups} others.  All nodes share this
+ * JVM's cores, so the result shows the cost of a write as the cluster grows rather than the capacity
+ * of a real cluster, e.g.
+ * {@code ./gradlew jmh -PjmhArgs='CacheTopologyBenchmark -p serverNodes=1,4'}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g"})
+@Threads(8)
+public class CacheTopologyBenchmark {
+
+    private static final String CACHE = "topology";
+
+    @Param({"1", "2", "4"})
+    private int serverNodes;
+
+    @Param({"REPLICATED", "PARTITIONED"})
+    private CacheMode cacheMode;
+
+    @Param({"1"})
+    private int backups;
+
+    @Param({"1024"})
+    private int valueSize;
+
+    @Param({"100000"})
+    private int keySpace;
+
+    private EmbeddedCluster cluster;
+    private Cache cache;
+    private String value;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        cluster = new EmbeddedCluster(serverNodes);
+        CacheTopology topology = new CacheTopology();
+        topology.setMode(cacheMode);
+        topology.setBackups(backups);
+        TopologySpringCacheManager cacheManager = new TopologySpringCacheManager(Collections.singletonMap(CACHE, topology));
+        cacheManager.setIgniteInstanceName(cluster.getClient().name());
+        cacheManager.setDynamicCacheConfiguration(new CacheConfiguration<>());
+        cacheManager.afterPropertiesSet();
+        cache = cacheManager.getCache(CACHE);
+        @SuppressWarnings("unchecked")
+        CacheConfiguration<?, ?> started = cluster.getClient().cache(CACHE).getConfiguration(CacheConfiguration.class);
+        if (started.getCacheMode() != cacheMode) {
+            throw new IllegalStateException("cache started as " + started.getCacheMode());
+        }
+        value = RandomStringUtils.randomAlphanumeric(valueSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        cluster.close();
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(ThreadLocalRandom.current().nextInt(keySpace), value);
+    }
+
+}
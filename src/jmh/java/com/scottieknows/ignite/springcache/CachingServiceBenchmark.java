@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.spring.SpringCacheManager;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.NearCacheConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+import com.scottieknows.ignite.KeyDistribution;
+
+/**
+ * Throughput and latency of {@link CachingService} against an embedded cluster, called from a client
+ * node through the same cache manager stack as the application.  The {@code *Bulk} and
+ * {@code *Single} variants move the same {@code batchSize} entries, with one bulk call and one call
+ * per key respectively.  The full matrix takes a while, narrow it with {@code -p}, e.g.
+ * {@code ./gradlew jmh -PjmhArgs='CachingServiceBenchmark.getById -p cacheMode=PARTITIONED -p nearSize=0'}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g"})
+@Threads(4)
+public class CachingServiceBenchmark {
+
+    private static final int SAMPLES = 1 << 20;
+
+    @Param({"2"})
+    private int serverNodes;
+
+    @Param({"REPLICATED", "PARTITIONED"})
+    private CacheMode cacheMode;
+
+    /** 0 disables the near cache */
+    @Param({"0", "10000"})
+    private int nearSize;
+
+    @Param({"64", "1024"})
+    private int valueSize;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    @Param({"100000"})
+    private int keySpace;
+
+    @Param({"64"})
+    private int batchSize;
+
+    private EmbeddedCluster cluster;
+    private AnnotationConfigApplicationContext context;
+    private CachingService cachingService;
+    private int[] keys;
+    private String value;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(SAMPLES);
+
+        int next(int[] keys) {
+            return keys[next++ & (SAMPLES - 1)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        cluster = new EmbeddedCluster(serverNodes);
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("igniteCacheManager", igniteCacheManager());
+        context.register(CachingConfig.class);
+        context.refresh();
+        cachingService = context.getBean(CachingService.class);
+        keys = distribution.sample(keySpace, SAMPLES, 1);
+        value = RandomStringUtils.randomAlphanumeric(valueSize);
+        Map<Integer, String> values = new TreeMap<>();
+        for (int i = 0; i < keySpace; i++) {
+            values.put(i, value);
+            if (values.size() == 1024) {
+                cachingService.putAll(values);
+                values.clear();
+            }
+        }
+        cachingService.putAll(values);
+    }
+
+    private SpringCacheManager igniteCacheManager() throws Exception {
+        SpringCacheManager springCacheManager = new SpringCacheManager();
+        springCacheManager.setIgniteInstanceName(cluster.getClient().name());
+        CacheConfiguration<Object, Object> cacheConfiguration = new CacheConfiguration<>();
+        cacheConfiguration.setCacheMode(cacheMode);
+        springCacheManager.setDynamicCacheConfiguration(cacheConfiguration);
+        if (nearSize > 0) {
+            NearCacheConfiguration<Object, Object> nearCacheConfiguration = new NearCacheConfiguration<>();
+            nearCacheConfiguration.setNearEvictionPolicy(new CountingLruEvictionPolicy<>(nearSize));
+            springCacheManager.setDynamicNearCacheConfiguration(nearCacheConfiguration);
+        }
+        springCacheManager.afterPropertiesSet();
+        return springCacheManager;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        cluster.close();
+    }
+
+    @Benchmark
+    public String getById(Cursor cursor) {
+        return cachingService.getById(cursor.next(keys));
+    }
+
+    @Benchmark
+    public String put(Cursor cursor) {
+        return cachingService.put(cursor.next(keys), value);
+    }
+
+    @Benchmark
+    public Map<Integer, String> getAllBulk(Cursor cursor) {
+        List<Integer> ids = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            ids.add(cursor.next(keys));
+        }
+        return cachingService.getAll(ids);
+    }
+
+    @Benchmark
+    public void getAllSingle(Cursor cursor, Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(cachingService.getById(cursor.next(keys)));
+        }
+    }
+
+    @Benchmark
+    public void putAllBulk(Cursor cursor) {
+        Map<Integer, String> values = new TreeMap<>();
+        for (int i = 0; i < batchSize; i++) {
+            values.put(cursor.next(keys), value);
+        }
+        cachingService.putAll(values);
+    }
+
+    @Benchmark
+    public void putAllSingle(Cursor cursor, Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(cachingService.put(cursor.next(keys), value));
+        }
+    }
+
+    /**
+     * The cache manager stack of {@link IgniteSpringCacheApplication} on top of the client node.
+     */
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        @Primary
+        public CacheManager cacheManager(@Qualifier("igniteCacheManager") CacheManager igniteCacheManager) {
+            return new SingleFlightCacheManager(new InstrumentedCacheManager(igniteCacheManager),
+                                                Collections.singleton(CachingService.IDS_CACHE));
+        }
+
+        @Bean
+        public CachingService cachingService() {
+            return new CachingService();
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.Cache.Entry;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Write-behind flush throughput of {@link H2CacheStore} for different flush batch sizes.  The
+ * {@code entries} secondary result is the number of cache entries persisted per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class H2CacheStoreBenchmark {
+
+    @Param({"1", "64", "512", "4096"})
+    private int batchSize;
+
+    @Param({"64"})
+    private int valueSize;
+
+    @Param({"100000"})
+    private int keySpace;
+
+    private Path dir;
+    private H2CacheStore store;
+    private String value;
+    private int nextKey;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Flushed {
+        public long entries;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("h2-cache-store-bench");
+        store = new H2CacheStore("jdbc:h2:file:" + dir.resolve("store"), 1);
+        store.setCacheName("ids");
+        store.start();
+        value = RandomStringUtils.randomAlphanumeric(valueSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.stop();
+        Files.walk(dir).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+    }
+
+    @Benchmark
+    public void writeAll(Flushed flushed) {
+        Collection<Entry<? extends Object, ? extends Object>> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new StoreEntry(nextKey++ % keySpace, value));
+        }
+        store.writeAll(batch);
+        flushed.entries += batchSize;
+    }
+
+    @Benchmark
+    public void deleteAll(Flushed flushed) {
+        List<Object> keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            keys.add(nextKey++ % keySpace);
+        }
+        store.deleteAll(keys);
+        flushed.entries += batchSize;
+    }
+
+    private static class StoreEntry extends SimpleImmutableEntry<Object, Object> implements Entry<Object, Object> {
+        private static final long serialVersionUID = 1L;
+
+        StoreEntry(Object key, Object value) {
+            super(key, value);
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
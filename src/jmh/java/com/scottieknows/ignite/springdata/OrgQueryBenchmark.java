@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import javax.cache.Cache;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.cache.query.SqlQuery;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.springdata.repository.config.EnableIgniteRepositories;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+import com.scottieknows.ignite.KeyDistribution;
+
+/**
+ * Latency of the queries scoped to one organization, with the persons of an organization on one node
+ * or spread over all of them.
+ * <ul>
+ * <li>{@code COLLOCATED} persons are keyed by {@link Person#key()} and queried through
+ * {@link PersonRepositoryCustom}, one local query on the node that owns the organization.</li>
+ * <li>{@code SPREAD} persons are keyed by id in another cache, as they used to be, and queried with
+ * regular sql, every node runs the query and the join needs distributed joins.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g"})
+public class OrgQueryBenchmark {
+
+    private static final int SAMPLES = 1 << 16;
+    private static final String SPREAD_CACHE = "SpreadPersonCache";
+    private static final String EMPLOYEES = "SELECT o.name, p.firstName, p.lastName, p.salary"
+        + " FROM Person p, \"OrganizationCache\".Organization o WHERE p.orgId = o.id AND o.id = ?";
+
+    public enum Layout { SPREAD, COLLOCATED }
+
+    @Param({"SPREAD", "COLLOCATED"})
+    private Layout layout;
+
+    @Param({"3"})
+    private int serverNodes;
+
+    @Param({"50000"})
+    private int persons;
+
+    @Param({"100"})
+    private int orgs;
+
+    private EmbeddedCluster cluster;
+    private AnnotationConfigApplicationContext context;
+    private PersonRepository repo;
+    private IgniteCache<Long, Person> spreadCache;
+    private int[] orgIds;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(SAMPLES);
+
+        int next(int[] samples) {
+            return samples[next++ & (SAMPLES - 1)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        IgniteSpringDataApplication application = new IgniteSpringDataApplication();
+        CacheConfiguration<Long, Person> spreadCacheConfiguration = new CacheConfiguration<>(SPREAD_CACHE);
+        spreadCacheConfiguration.setIndexedTypes(Long.class, Person.class);
+        cluster = new EmbeddedCluster(serverNodes, application.personCacheConfiguration(),
+                                      application.organizationCacheConfiguration(), spreadCacheConfiguration);
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("igniteInstance", cluster.getClient());
+        context.register(RepositoryConfig.class);
+        context.refresh();
+        repo = context.getBean(PersonRepository.class);
+        spreadCache = cluster.getClient().cache(SPREAD_CACHE);
+        OrganizationRepository orgRepo = context.getBean(OrganizationRepository.class);
+        for (long id = 0; id < orgs; id++) {
+            orgRepo.save(id, new Organization(id, "org" + id));
+        }
+        if (layout == Layout.COLLOCATED) {
+            new PersonIngester(cluster.getClient(), "PersonCache", 512, 16, false)
+                .ingest(LongStream.range(0, persons).mapToObj(this::person));
+        } else {
+            try (IgniteDataStreamer<Long, Person> streamer = cluster.getClient().dataStreamer(SPREAD_CACHE)) {
+                LongStream.range(0, persons).mapToObj(this::person).forEach(p -> streamer.addData(p.getId(), p));
+            }
+        }
+        orgIds = KeyDistribution.UNIFORM.sample(orgs, SAMPLES, 1);
+    }
+
+    private Person person(long id) {
+        return new Person(id, id % orgs, "first" + id, "last" + id, id % 100000, RandomStringUtils.randomAlphabetic(64));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        cluster.close();
+    }
+
+    @Benchmark
+    public int persons(Cursor cursor) {
+        long orgId = cursor.next(orgIds);
+        if (layout == Layout.COLLOCATED) {
+            return repo.findByOrgIdCollocated(orgId).size();
+        }
+        SqlQuery<Long, Person> query = new SqlQuery<>(Person.class, "orgId = ?");
+        query.setArgs(orgId);
+        List<Cache.Entry<Long, Person>> entries = spreadCache.query(query).getAll();
+        return entries.size();
+    }
+
+    @Benchmark
+    public int employees(Cursor cursor) {
+        long orgId = cursor.next(orgIds);
+        if (layout == Layout.COLLOCATED) {
+            return repo.findEmployeesCollocated(orgId).size();
+        }
+        SqlFieldsQuery query = new SqlFieldsQuery(EMPLOYEES);
+        query.setArgs(orgId);
+        query.setDistributedJoins(true);
+        return spreadCache.query(query).getAll().size();
+    }
+
+    /**
+     * Repositories of {@link IgniteSpringDataApplication} on top of the client node, registered as the
+     * {@code igniteInstance} bean.
+     */
+    @Configuration
+    @EnableIgniteRepositories(basePackageClasses=PersonRepository.class)
+    static class RepositoryConfig {
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.cache.affinity.AffinityKey;
+import org.apache.ignite.springdata.repository.config.EnableIgniteRepositories;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scottieknows.ignite.EmbeddedCluster;
+
+/**
+ * Persons per second loaded into an empty {@code PersonCache} from a client node.
+ * <ul>
+ * <li>{@code SAVE} is {@link PersonRepository#save(Map)} with maps of {@code SAVE_BATCH} persons.</li>
+ * <li>{@code STREAM} is {@link PersonIngester#ingest(java.util.stream.Stream)} of generated persons.</li>
+ * <li>{@code CSV} and {@code NDJSON} are {@link PersonIngester} reading the same persons from a file.</li>
+ * </ul>
+ * Each operation is one person, the cache is cleared before every load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=2, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g"})
+public class PersonIngestBenchmark {
+
+    static final int PERSONS = 100000;
+    private static final int SAVE_BATCH = 1024;
+
+    public enum Method { SAVE, STREAM, CSV, NDJSON }
+
+    @Param({"SAVE", "STREAM", "CSV", "NDJSON"})
+    private Method method;
+
+    @Param({"2"})
+    private int serverNodes;
+
+    @Param({"512"})
+    private int perNodeBufferSize;
+
+    @Param({"16"})
+    private int perNodeParallelOperations;
+
+    @Param({"false"})
+    private boolean allowOverwrite;
+
+    private EmbeddedCluster cluster;
+    private AnnotationConfigApplicationContext context;
+    private PersonRepository repo;
+    private PersonIngester ingester;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        IgniteSpringDataApplication application = new IgniteSpringDataApplication();
+        cluster = new EmbeddedCluster(serverNodes, application.personCacheConfiguration(),
+                                      application.organizationCacheConfiguration());
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("igniteInstance", cluster.getClient());
+        context.register(RepositoryConfig.class);
+        context.refresh();
+        repo = context.getBean(PersonRepository.class);
+        ingester = new PersonIngester(cluster.getClient(), "PersonCache", perNodeBufferSize,
+                                      perNodeParallelOperations, allowOverwrite);
+        ingester.setProgressInterval(Long.MAX_VALUE);
+        if (method == Method.CSV) {
+            file = Files.createTempFile("persons", ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                writer.write("id,orgId,firstName,lastName,salary,resume\n");
+                for (long id = 0; id < PERSONS; id++) {
+                    Person p = person(id);
+                    writer.write(p.id + "," + p.orgId + "," + p.firstName + "," + p.lastName + "," + p.salary + ","
+                        + p.resume + "\n");
+                }
+            }
+        } else if (method == Method.NDJSON) {
+            file = Files.createTempFile("persons", ".ndjson");
+            ObjectMapper mapper = new ObjectMapper();
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for (long id = 0; id < PERSONS; id++) {
+                    writer.write(mapper.writeValueAsString(person(id)));
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    private static Person person(long id) {
+        return new Person(id, id % 100, "first" + (id % 1000), "last" + id, id % 100000,
+                          RandomStringUtils.randomAlphabetic(64));
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        cluster.getClient().cache("PersonCache").clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        cluster.close();
+        if (file != null) {
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PERSONS)
+    public long load() throws IOException {
+        switch (method) {
+        case SAVE:
+            Map<AffinityKey<Long>, Person> batch = new HashMap<>();
+            for (long id = 0; id < PERSONS; id++) {
+                Person person = person(id);
+                batch.put(person.key(), person);
+                if (batch.size() == SAVE_BATCH) {
+                    repo.save(batch);
+                    batch.clear();
+                }
+            }
+            repo.save(batch);
+            return PERSONS;
+        case STREAM:
+            return ingester.ingest(LongStream.range(0, PERSONS).mapToObj(PersonIngestBenchmark::person));
+        case CSV:
+            return ingester.ingestCsv(file);
+        default:
+            return ingester.ingestNdjson(file);
+        }
+    }
+
+    /**
+     * Repositories of {@link IgniteSpringDataApplication} on top of the client node, registered as the
+     * {@code igniteInstance} bean.
+     */
+    @Configuration
+    @EnableIgniteRepositories(basePackageClasses=PersonRepository.class)
+    static class RepositoryConfig {
+    }
+
+}
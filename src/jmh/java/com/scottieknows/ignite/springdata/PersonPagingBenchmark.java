@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.springdata.repository.config.EnableIgniteRepositories;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+
+/**
+ * Deep pages and large results of {@link PersonRepository}.
+ * <ul>
+ * <li>{@code page} reads page {@code page} of {@code pageSize} ids, with {@code OFFSET} pagination
+ * through {@link PersonRepository#selectId} or {@code KEYSET} pagination through
+ * {@link PersonRepository#selectIdAfter}.</li>
+ * <li>{@code scanList} and {@code scanStream} sum the salaries of the persons with one first name, from
+ * the list of {@link PersonRepository#findByFirstName} or from
+ * {@link PersonRepositoryCustom#streamByFirstName}.</li>
+ * </ul>
+ * The highest peak heap of the measurement iterations in MB is the {@code peakHeapMb} secondary
+ * result, each iteration shows what it raised it by.  Run with {@code -prof gc} for the allocations.  The two
+ * server nodes hold 2 million persons in 1g data regions, narrow {@code persons} for a smaller machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g", "-DembeddedCluster.dataRegionSize=1073741824"})
+public class PersonPagingBenchmark {
+
+    private static final int SCAN_PAGE_SIZE = 1024;
+
+    @Param({"2"})
+    private int serverNodes;
+
+    @Param({"2000000"})
+    private int persons;
+
+    @Param({"100"})
+    private int orgs;
+
+    @Param({"20"})
+    private int firstNames;
+
+    private EmbeddedCluster cluster;
+    private AnnotationConfigApplicationContext context;
+    private PersonRepository repo;
+
+    public enum Paging { OFFSET, KEYSET }
+
+    @State(Scope.Benchmark)
+    public static class Page {
+        @Param({"OFFSET", "KEYSET"})
+        private Paging paging;
+
+        @Param({"0", "100", "1000"})
+        private int page;
+
+        @Param({"100"})
+        private int pageSize;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP).collect(Collectors.toList());
+
+        private long highestPeakHeapMb;
+
+        // jmh sums the iterations, each one adds what it raised the highest peak by
+        public long peakHeapMb;
+
+        @Setup(Level.Iteration)
+        public void resetPeakHeap() {
+            System.gc();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        @TearDown(Level.Iteration)
+        public void readPeakHeap(IterationParams iteration) {
+            long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() >> 20;
+            peakHeapMb = Math.max(peak - highestPeakHeapMb, 0);
+            // the warm-up iterations are not summed, the measurement starts from 0
+            highestPeakHeapMb = (iteration.getType() == IterationType.WARMUP) ? 0 : highestPeakHeapMb + peakHeapMb;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        IgniteSpringDataApplication application = new IgniteSpringDataApplication();
+        cluster = new EmbeddedCluster(serverNodes, application.personCacheConfiguration(),
+                                      application.organizationCacheConfiguration());
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("igniteInstance", cluster.getClient());
+        context.register(RepositoryConfig.class);
+        context.refresh();
+        repo = context.getBean(PersonRepository.class);
+        String resume = RandomStringUtils.randomAlphabetic(64);
+        new PersonIngester(cluster.getClient(), "PersonCache", 512, 16, false).ingest(LongStream.range(0, persons)
+            .mapToObj(id -> new Person(id, id % orgs, "first" + (id % firstNames), "last" + id, id % 100000, resume)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        cluster.close();
+    }
+
+    /**
+     * Ids of orgId > 0, the persons that are not in org 0.
+     */
+    @Benchmark
+    public List<Long> page(Page page, Heap heap) {
+        if (page.paging == Paging.OFFSET) {
+            return repo.selectId(0, new PageRequest(page.page, page.pageSize));
+        }
+        long afterId = (page.page == 0) ? -1 : matchingId((long) page.page * page.pageSize - 1);
+        return repo.selectIdAfter(0, afterId, page.pageSize);
+    }
+
+    /**
+     * The id of the {@code n}th person not in org 0, what the previous page of a keyset reader ended with.
+     */
+    private long matchingId(long n) {
+        return (n / (orgs - 1)) * orgs + (n % (orgs - 1)) + 1;
+    }
+
+    @Benchmark
+    public double scanList(Heap heap) {
+        return repo.findByFirstName("first0").stream().mapToDouble(Person::getSalary).sum();
+    }
+
+    @Benchmark
+    public double scanStream(Heap heap) {
+        try (Stream<Person> persons = repo.streamByFirstName("first0", SCAN_PAGE_SIZE)) {
+            return persons.mapToDouble(Person::getSalary).sum();
+        }
+    }
+
+    /**
+     * Repositories of {@link IgniteSpringDataApplication} on top of the client node, registered as the
+     * {@code igniteInstance} bean.
+     */
+    @Configuration
+    @EnableIgniteRepositories(basePackageClasses=PersonRepository.class)
+    static class RepositoryConfig {
+    }
+
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import javax.cache.Cache.Entry;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.cache.QueryEntity;
+import org.apache.ignite.cache.QueryIndex;
+import org.apache.ignite.cache.QueryIndexType;
+import org.apache.ignite.cache.affinity.AffinityKey;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.springdata.repository.config.EnableIgniteRepositories;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+import com.scottieknows.ignite.KeyDistribution;
+
+/**
+ * Finder queries and key lookups of {@link PersonRepository} against an embedded cluster, called from
+ * a client node.  {@code firstNames} distinct first names and {@code orgs} organizations are spread
+ * over the persons, {@code distribution} picks which ones are queried.  {@code salary*} read a single
+ * field of a person, deserialized and through {@link BinaryFieldReader}.  {@code indexes} is the
+ * index layout of the persons, {@code SINGLE_COLUMN} is the id, orgId and salary indexes that
+ * {@link Person} used to have, {@code COMPOSITE} is the current one.  The finders on 10 million persons:
+ * {@code ./gradlew jmh -PjmhArgs='PersonRepositoryBenchmark.find -p persons=10000000 -jvmArgsAppend -DembeddedCluster.dataRegionSize=4294967296'}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g"})
+@Threads(4)
+public class PersonRepositoryBenchmark {
+
+    private static final int SAMPLES = 1 << 20;
+
+    @Param({"2"})
+    private int serverNodes;
+
+    @Param({"100000"})
+    private int persons;
+
+    @Param({"1000"})
+    private int firstNames;
+
+    @Param({"100"})
+    private int orgs;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    public enum Indexes { SINGLE_COLUMN, COMPOSITE }
+
+    @Param({"SINGLE_COLUMN", "COMPOSITE"})
+    private Indexes indexes;
+
+    @Param({"64"})
+    private int batchSize;
+
+    private EmbeddedCluster cluster;
+    private AnnotationConfigApplicationContext context;
+    private PersonRepository repo;
+    private BinaryFieldReader<AffinityKey<Long>> fieldReader;
+    private int[] ids;
+    private int[] names;
+    private int[] orgIds;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(SAMPLES);
+
+        int next(int[] samples) {
+            return samples[next++ & (SAMPLES - 1)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        IgniteSpringDataApplication application = new IgniteSpringDataApplication();
+        CacheConfiguration<AffinityKey<Long>, Person> personCacheConfiguration = application.personCacheConfiguration();
+        if (indexes == Indexes.SINGLE_COLUMN) {
+            QueryEntity entity = personCacheConfiguration.getQueryEntities().iterator().next();
+            List<QueryIndex> singleColumn = new ArrayList<>(Arrays.asList(
+                new QueryIndex("id"), new QueryIndex("orgId"), new QueryIndex("salary")));
+            entity.getIndexes().stream().filter(i -> i.getIndexType() == QueryIndexType.FULLTEXT).forEach(singleColumn::add);
+            entity.setIndexes(singleColumn);
+        }
+        cluster = new EmbeddedCluster(serverNodes, personCacheConfiguration,
+                                      application.organizationCacheConfiguration());
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("igniteInstance", cluster.getClient());
+        context.register(RepositoryConfig.class);
+        context.refresh();
+        repo = context.getBean(PersonRepository.class);
+        fieldReader = new BinaryFieldReader<>(cluster.getClient().cache("PersonCache"));
+        ids = distribution.sample(persons, SAMPLES, 1);
+        names = distribution.sample(firstNames, SAMPLES, 2);
+        orgIds = distribution.sample(orgs, SAMPLES, 3);
+        new PersonIngester(cluster.getClient(), "PersonCache", 512, 16, false).ingest(LongStream.range(0, persons)
+            .mapToObj(id -> new Person(id, id % orgs, firstName((int) (id % firstNames)), lastName(id),
+                                       id % 100000, RandomStringUtils.randomAlphabetic(64))));
+    }
+
+    private static String firstName(int i) {
+        return "first" + i;
+    }
+
+    private static String lastName(long id) {
+        return "last" + id;
+    }
+
+    private AffinityKey<Long> key(long id) {
+        return new AffinityKey<>(id, id % orgs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        cluster.close();
+    }
+
+    @Benchmark
+    public List<Person> findByFirstName(Cursor cursor) {
+        return repo.findByFirstName(firstName(cursor.next(names)));
+    }
+
+    @Benchmark
+    public Entry<AffinityKey<Long>, Person> findTopByLastNameLike(Cursor cursor) {
+        return repo.findTopByLastNameLike(lastName(cursor.next(ids)));
+    }
+
+    @Benchmark
+    public Entry<AffinityKey<Long>, Person> findTopByLastNameStartingWith(Cursor cursor) {
+        return repo.findTopByLastNameStartingWith(lastName(cursor.next(ids)));
+    }
+
+    @Benchmark
+    public List<Long> selectId(Cursor cursor) {
+        return repo.selectId(cursor.next(orgIds), new PageRequest(0, batchSize));
+    }
+
+    @Benchmark
+    public Person findOne(Cursor cursor) {
+        return repo.findOne(key(cursor.next(ids)));
+    }
+
+    @Benchmark
+    public Iterable<Person> findAllBulk(Cursor cursor) {
+        List<AffinityKey<Long>> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(key(cursor.next(ids)));
+        }
+        return repo.findAll(batch);
+    }
+
+    @Benchmark
+    public double salaryDeserialized(Cursor cursor) {
+        return repo.findOne(key(cursor.next(ids))).getSalary();
+    }
+
+    @Benchmark
+    public double salaryKeepBinary(Cursor cursor) {
+        return fieldReader.<Double>read(key(cursor.next(ids)), "salary");
+    }
+
+    /**
+     * Repositories of {@link IgniteSpringDataApplication} on top of the client node, registered as the
+     * {@code igniteInstance} bean.
+     */
+    @Configuration
+    @EnableIgniteRepositories(basePackageClasses=PersonRepository.class)
+    static class RepositoryConfig {
+    }
+
+}
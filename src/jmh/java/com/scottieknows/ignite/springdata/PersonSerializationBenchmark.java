@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.IgniteBinary;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.configuration.BinaryConfiguration;
+import org.apache.ignite.marshaller.Marshaller;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+import com.scottieknows.ignite.configuration.IgniteConfig;
+
+/**
+ * Cost of turning a {@link Person} into the bytes that are stored and sent, and back.
+ * <ul>
+ * <li>{@code JDK} is plain java serialization, what {@code Serializable} implies elsewhere.</li>
+ * <li>{@code REFLECTION} and {@code REFLECTION_FULL_FOOTER} are ignite's binary format written
+ * through reflection, with and without the compact footer.</li>
+ * <li>{@code SERIALIZER} is the binary format written by {@link PersonBinarySerializer} with the
+ * compact footer, as configured by the application.</li>
+ * </ul>
+ * The bytes per person are reported as the {@code bytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=3)
+@Measurement(iterations=5, time=3)
+@Fork(1)
+public class PersonSerializationBenchmark {
+
+    public enum Format { JDK, REFLECTION_FULL_FOOTER, REFLECTION, SERIALIZER }
+
+    @Param({"JDK", "REFLECTION_FULL_FOOTER", "REFLECTION", "SERIALIZER"})
+    private Format format;
+
+    @Param({"64"})
+    private int resumeSize;
+
+    private EmbeddedCluster cluster;
+    private IgniteBinary binary;
+    private Person person;
+    private BinaryObject binaryPerson;
+    private byte[] jdkPerson;
+    private int bytes;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IgniteCheckedException, IOException {
+        person = new Person(42L, 7L, "John", "Smith", 15000, RandomStringUtils.randomAlphabetic(resumeSize));
+        if (format == Format.JDK) {
+            jdkPerson = jdkSerialize();
+            bytes = jdkPerson.length;
+        } else {
+            BinaryConfiguration binaryConfiguration;
+            if (format == Format.SERIALIZER) {
+                binaryConfiguration = IgniteConfig.binaryConfiguration(true);
+            } else {
+                binaryConfiguration = new BinaryConfiguration();
+                binaryConfiguration.setCompactFooter(format != Format.REFLECTION_FULL_FOOTER);
+            }
+            cluster = new EmbeddedCluster(1, binaryConfiguration);
+            binary = cluster.getClient().binary();
+            binaryPerson = binary.toBinary(person);
+            // the binary marshaller of the node writes the same bytes as toBinary, the deprecated getter
+            // is the only public way to it in 2.3
+            @SuppressWarnings("deprecation")
+            Marshaller marshaller = cluster.getClient().configuration().getMarshaller();
+            bytes = marshaller.marshal(person).length;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Benchmark
+    public Object serialize(Size size) throws IOException {
+        size.bytes = bytes;
+        return (format == Format.JDK) ? jdkSerialize() : binary.toBinary(person);
+    }
+
+    @Benchmark
+    public Person deserialize(Size size) throws IOException, ClassNotFoundException {
+        size.bytes = bytes;
+        if (format == Format.JDK) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(jdkPerson))) {
+                return (Person) in.readObject();
+            }
+        }
+        return binaryPerson.deserialize();
+    }
+
+    private byte[] jdkSerialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(person);
+        }
+        return bytes.toByteArray();
+    }
+
+}
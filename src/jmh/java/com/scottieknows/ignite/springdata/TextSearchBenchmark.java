@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import javax.cache.Cache;
+
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.affinity.AffinityKey;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.SqlQuery;
+import org.apache.ignite.springdata.repository.config.EnableIgniteRepositories;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import com.scottieknows.ignite.EmbeddedCluster;
+import com.scottieknows.ignite.KeyDistribution;
+
+/**
+ * Finding the persons whose resume contains a word, through the lucene index with
+ * {@link PersonRepositoryCustom#searchResume} or with a sql {@code LIKE '%word%'} scan.  Resumes are
+ * {@code resumeWords} words out of {@code vocabulary}, each word is a {@code w} and four digits, so that
+ * {@code LIKE} only matches whole words too.  {@code *Filtered} also keep the persons of one organization.
+ * Both return at most {@code limit} persons, a {@code LIKE} with a small limit stops scanning early.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx2g"})
+public class TextSearchBenchmark {
+
+    private static final int SAMPLES = 1 << 16;
+    private static final String LIKE = "resume LIKE ? LIMIT ?";
+    private static final String LIKE_FILTERED = "resume LIKE ? AND orgId = ? LIMIT ?";
+
+    @Param({"2"})
+    private int serverNodes;
+
+    @Param({"200000"})
+    private int persons;
+
+    @Param({"100"})
+    private int orgs;
+
+    @Param({"5000"})
+    private int vocabulary;
+
+    @Param({"50"})
+    private int resumeWords;
+
+    @Param({"100", "100000"})
+    private int limit;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    private EmbeddedCluster cluster;
+    private AnnotationConfigApplicationContext context;
+    private PersonRepository repo;
+    private IgniteCache<AffinityKey<Long>, Person> cache;
+    private int[] words;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(SAMPLES);
+
+        int next(int[] samples) {
+            return samples[next++ & (SAMPLES - 1)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        IgniteSpringDataApplication application = new IgniteSpringDataApplication();
+        cluster = new EmbeddedCluster(serverNodes, application.personCacheConfiguration(),
+                                      application.organizationCacheConfiguration());
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("igniteInstance", cluster.getClient());
+        context.register(RepositoryConfig.class);
+        context.refresh();
+        repo = context.getBean(PersonRepository.class);
+        cache = cluster.getClient().cache("PersonCache");
+        // resumes draw their words with the same distribution as the searches
+        int[] resumeWordSamples = distribution.sample(vocabulary, SAMPLES, 1);
+        new PersonIngester(cluster.getClient(), "PersonCache", 512, 16, false).ingest(LongStream.range(0, persons)
+            .mapToObj(id -> new Person(id, id % orgs, "first" + id, "last" + id, id % 100000, resume(id, resumeWordSamples))));
+        words = distribution.sample(vocabulary, SAMPLES, 2);
+    }
+
+    private String resume(long id, int[] resumeWordSamples) {
+        return LongStream.range(0, resumeWords)
+            .mapToObj(i -> word(resumeWordSamples[(int) ((id * resumeWords + i) & (SAMPLES - 1))]))
+            .collect(Collectors.joining(" "));
+    }
+
+    private static String word(int i) {
+        return String.format("w%04d", i);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        cluster.close();
+    }
+
+    @Benchmark
+    public List<Person> text(Cursor cursor) {
+        try (Stream<Person> matches = repo.searchResume(word(cursor.next(words)), limit, limit)) {
+            return matches.collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public List<Person> like(Cursor cursor) {
+        SqlQuery<AffinityKey<Long>, Person> query = new SqlQuery<>(Person.class, LIKE);
+        query.setArgs("%" + word(cursor.next(words)) + "%", limit);
+        return values(query);
+    }
+
+    @Benchmark
+    public List<Person> textFiltered(Cursor cursor) {
+        long orgId = cursor.next(words) % orgs;
+        try (Stream<Person> matches = repo.searchResume(word(cursor.next(words)), orgId, null, null, 1024, limit)) {
+            return matches.collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public List<Person> likeFiltered(Cursor cursor) {
+        long orgId = cursor.next(words) % orgs;
+        SqlQuery<AffinityKey<Long>, Person> query = new SqlQuery<>(Person.class, LIKE_FILTERED);
+        query.setArgs("%" + word(cursor.next(words)) + "%", orgId, limit);
+        return values(query);
+    }
+
+    private List<Person> values(SqlQuery<AffinityKey<Long>, Person> query) {
+        try (QueryCursor<Cache.Entry<AffinityKey<Long>, Person>> matches = cache.query(query)) {
+            return matches.getAll().stream().map(Cache.Entry::getValue).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Repositories of {@link IgniteSpringDataApplication} on top of the client node, registered as the
+     * {@code igniteInstance} bean.
+     */
+    @Configuration
+    @EnableIgniteRepositories(basePackageClasses=PersonRepository.class)
+    static class RepositoryConfig {
+    }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import javax.cache.Cache;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.lang.IgniteRunnable;
+import org.apache.ignite.resources.IgniteInstanceResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Activates a cluster with native persistence once {@code activationNodes} server nodes have joined.
+ * Ignite 2.3 has no baseline topology, a persistent cluster starts inactive and has to be activated
+ * with the nodes that hold its data, activating with fewer would rebalance the missing partitions
+ * onto the nodes that are there.  Activating an active cluster is a no-op, so every node can run it.
+ * <p>
+ * Reads are served from the disk backed pages as soon as the cluster is active.  With
+ * {@code warmUp} every server node then scans its own local entries once in the background so that
+ * the pages are in memory before the reads ask for them, client nodes hold no data and skip it.
+ */
+public class ClusterActivator {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterActivator.class);
+
+    private final IgniteLauncher igniteLauncher;
+    private final int activationNodes;
+    private final boolean warmUp;
+    private long pollInterval = 1000;
+    private volatile boolean stopped;
+
+    public ClusterActivator(IgniteLauncher igniteLauncher, int activationNodes, boolean warmUp) {
+        this.igniteLauncher = igniteLauncher;
+        this.activationNodes = activationNodes;
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Waits for the node and the cluster on a background thread.
+     */
+    public void start() {
+        Thread thread = new Thread(() -> {
+            try {
+                activate();
+            } catch (RuntimeException e) {
+                // the node did not start, there is nothing to activate
+                logger.error("cluster activation stopped: {}", e.getMessage(), e);
+            }
+        }, "cluster-activator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() {
+        stopped = true;
+    }
+
+    /**
+     * @return true once the cluster is active
+     */
+    boolean activate() {
+        Ignite ignite = igniteLauncher.getIgnite();
+        long start = System.currentTimeMillis();
+        while (!stopped && !tryActivate(ignite, start)) {
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (stopped) {
+            return false;
+        }
+        if (warmUp && !ignite.cluster().localNode().isClient()) {
+            // each server node warms only its own entries, whichever node activated the cluster
+            Collection<String> cacheNames = new ArrayList<>(ignite.cacheNames());
+            ignite.compute(ignite.cluster().forLocal()).runAsync(new WarmUp(cacheNames))
+                .listen(f -> logger.info("warmed up caches {}", cacheNames));
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the cluster is active, false to poll again
+     */
+    private boolean tryActivate(Ignite ignite, long start) {
+        try {
+            if (ignite.active()) {
+                logger.info("cluster is active");
+                return true;
+            }
+            int serverNodes = ignite.cluster().forServers().nodes().size();
+            if (serverNodes >= activationNodes) {
+                ignite.active(true);
+                logger.info("activated the cluster with {} server nodes in {} ms",
+                    serverNodes, System.currentTimeMillis() - start);
+                return true;
+            }
+            logger.info("waiting for {} of {} server nodes to activate the cluster", serverNodes, activationNodes);
+        } catch (RuntimeException e) {
+            // e.g. a node left while the cluster was activated, the next poll tries again
+            logger.warn("could not activate the cluster, retrying in {} ms: {}", pollInterval, e.getMessage(), e);
+        }
+        return false;
+    }
+
+    // package private for tests
+    void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Reads every local entry once, as binary so that nothing is deserialized, which loads the pages
+     * from disk.
+     */
+    static class WarmUp implements IgniteRunnable {
+        private static final long serialVersionUID = 1L;
+
+        @IgniteInstanceResource
+        private transient Ignite ignite;
+
+        private final Collection<String> cacheNames;
+
+        WarmUp(Collection<String> cacheNames) {
+            this.cacheNames = cacheNames;
+        }
+
+        @Override
+        public void run() {
+            for (String cacheName : cacheNames) {
+                IgniteCache<Object, Object> cache = ignite.cache(cacheName);
+                if (cache == null) {
+                    continue;
+                }
+                ScanQuery<Object, Object> query = new ScanQuery<>();
+                query.setLocal(true);
+                long entries = 0;
+                try (QueryCursor<Cache.Entry<Object, Object>> cursor = cache.withKeepBinary().query(query)) {
+                    for (Cache.Entry<Object, Object> entry : cursor) {
+                        entries++;
+                    }
+                }
+                logger.info("warmed up {} local entries of cache {}", entries, cacheName);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ignite.configuration.DataPageEvictionMode;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.WALMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Off-heap data regions of the node by region name, e.g.
+ * <pre>
+ * ignite.storage.regions.large.initialSize=1073741824
+ * ignite.storage.regions.large.maxSize=17179869184
+ * ignite.caches.values.dataRegion=large
+ * </pre>
+ * The region named {@code default} replaces the default region, caches without a data region use it.
+ * Regions only hold data on the server nodes, they have to be configured there.
+ * <p>
+ * Regions with {@code persistenceEnabled} keep their pages on disk, written ahead to the WAL with
+ * {@code walMode} and checkpointed every {@code checkpointFrequency} ms, see the {@code persistence}
+ * profile.
+ */
+@ConfigurationProperties(prefix="ignite.storage")
+public class DataStorageProperties {
+
+    private Map<String, DataRegion> regions = new HashMap<>();
+    private WALMode walMode = WALMode.LOG_ONLY;
+    private long walFlushFrequency = DataStorageConfiguration.DFLT_WAL_FLUSH_FREQ;
+    private long checkpointFrequency = DataStorageConfiguration.DFLT_CHECKPOINT_FREQ;
+    private String storagePath;
+    private String walPath;
+    private String walArchivePath;
+
+    /**
+     * @return null when no region is configured, so that ignite keeps its defaults
+     */
+    public DataStorageConfiguration toDataStorageConfiguration() {
+        if (regions.isEmpty()) {
+            return null;
+        }
+        DataStorageConfiguration dataStorageConfiguration = new DataStorageConfiguration();
+        // only used by persistent regions
+        dataStorageConfiguration.setWalMode(walMode);
+        dataStorageConfiguration.setWalFlushFrequency(walFlushFrequency);
+        dataStorageConfiguration.setCheckpointFrequency(checkpointFrequency);
+        if (storagePath != null) {
+            dataStorageConfiguration.setStoragePath(storagePath);
+        }
+        if (walPath != null) {
+            dataStorageConfiguration.setWalPath(walPath);
+        }
+        if (walArchivePath != null) {
+            dataStorageConfiguration.setWalArchivePath(walArchivePath);
+        }
+        List<DataRegionConfiguration> dataRegions = new ArrayList<>();
+        regions.forEach((name, region) -> {
+            if (DataStorageConfiguration.DFLT_DATA_REG_DEFAULT_NAME.equals(name)) {
+                dataStorageConfiguration.setDefaultDataRegionConfiguration(region.toDataRegionConfiguration(name));
+            } else {
+                dataRegions.add(region.toDataRegionConfiguration(name));
+            }
+        });
+        dataStorageConfiguration.setDataRegionConfigurations(
+            dataRegions.toArray(new DataRegionConfiguration[dataRegions.size()]));
+        return dataStorageConfiguration;
+    }
+
+    public Map<String, DataRegion> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, DataRegion> regions) {
+        this.regions = regions;
+    }
+
+    public WALMode getWalMode() {
+        return walMode;
+    }
+
+    /**
+     * {@code LOG_ONLY} survives a process crash, {@code BACKGROUND} can lose the last
+     * {@code walFlushFrequency} ms of updates for faster writes.
+     */
+    public void setWalMode(WALMode walMode) {
+        this.walMode = walMode;
+    }
+
+    public long getWalFlushFrequency() {
+        return walFlushFrequency;
+    }
+
+    public void setWalFlushFrequency(long walFlushFrequency) {
+        this.walFlushFrequency = walFlushFrequency;
+    }
+
+    public long getCheckpointFrequency() {
+        return checkpointFrequency;
+    }
+
+    public void setCheckpointFrequency(long checkpointFrequency) {
+        this.checkpointFrequency = checkpointFrequency;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public String getWalPath() {
+        return walPath;
+    }
+
+    public void setWalPath(String walPath) {
+        this.walPath = walPath;
+    }
+
+    public String getWalArchivePath() {
+        return walArchivePath;
+    }
+
+    public void setWalArchivePath(String walArchivePath) {
+        this.walArchivePath = walArchivePath;
+    }
+
+    /**
+     * Sizes are in bytes.  Once {@code evictionThreshold} of {@code maxSize} is in use, pages are
+     * evicted with {@code pageEvictionMode} instead of failing the write with an out of memory error.
+     * A persistent region holds the hot pages in memory and reads the rest from disk on demand, pages
+     * updated during a checkpoint are copied to a {@code checkpointPageBufferSize} buffer, 0 leaves
+     * the sizing to ignite.
+     */
+    public static class DataRegion {
+        private long initialSize = DataStorageConfiguration.DFLT_DATA_REGION_INITIAL_SIZE;
+        private long maxSize = DataStorageConfiguration.DFLT_DATA_REGION_MAX_SIZE;
+        private DataPageEvictionMode pageEvictionMode = DataPageEvictionMode.RANDOM_2_LRU;
+        private double evictionThreshold = 0.9;
+        private boolean metricsEnabled = true;
+        private boolean persistenceEnabled;
+        private long checkpointPageBufferSize;
+
+        DataRegionConfiguration toDataRegionConfiguration(String name) {
+            DataRegionConfiguration dataRegionConfiguration = new DataRegionConfiguration();
+            dataRegionConfiguration.setName(name);
+            // the initial size cannot be larger than the max
+            dataRegionConfiguration.setInitialSize(Math.min(initialSize, maxSize));
+            dataRegionConfiguration.setMaxSize(maxSize);
+            dataRegionConfiguration.setMetricsEnabled(metricsEnabled);
+            if (persistenceEnabled) {
+                // cold pages are replaced by disk reads, page eviction does not apply
+                dataRegionConfiguration.setPersistenceEnabled(true);
+                dataRegionConfiguration.setCheckpointPageBufferSize(checkpointPageBufferSize);
+            } else {
+                dataRegionConfiguration.setPageEvictionMode(pageEvictionMode);
+                dataRegionConfiguration.setEvictionThreshold(evictionThreshold);
+            }
+            return dataRegionConfiguration;
+        }
+
+        public long getInitialSize() {
+            return initialSize;
+        }
+
+        public void setInitialSize(long initialSize) {
+            this.initialSize = initialSize;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataPageEvictionMode getPageEvictionMode() {
+            return pageEvictionMode;
+        }
+
+        public void setPageEvictionMode(DataPageEvictionMode pageEvictionMode) {
+            this.pageEvictionMode = pageEvictionMode;
+        }
+
+        public double getEvictionThreshold() {
+            return evictionThreshold;
+        }
+
+        public void setEvictionThreshold(double evictionThreshold) {
+            this.evictionThreshold = evictionThreshold;
+        }
+
+        public boolean isMetricsEnabled() {
+            return metricsEnabled;
+        }
+
+        public void setMetricsEnabled(boolean metricsEnabled) {
+            this.metricsEnabled = metricsEnabled;
+        }
+
+        public boolean isPersistenceEnabled() {
+            return persistenceEnabled;
+        }
+
+        public void setPersistenceEnabled(boolean persistenceEnabled) {
+            this.persistenceEnabled = persistenceEnabled;
+        }
+
+        public long getCheckpointPageBufferSize() {
+            return checkpointPageBufferSize;
+        }
+
+        public void setCheckpointPageBufferSize(long checkpointPageBufferSize) {
+            this.checkpointPageBufferSize = checkpointPageBufferSize;
+        }
+    }
+
+}
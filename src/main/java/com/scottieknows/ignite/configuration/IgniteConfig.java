@@ -22,41 +22,117 @@
 package com.scottieknows.ignite.configuration;
 
 import java.util.Collections;
+import java.util.List;
 
+import org.apache.ignite.Ignite;
+import org.apache.ignite.binary.BinaryTypeConfiguration;
+import org.apache.ignite.configuration.BinaryConfiguration;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.events.EventType;
 import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.TcpDiscoveryIpFinder;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.multicast.TcpDiscoveryMulticastIpFinder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import com.scottieknows.ignite.springdata.Person;
+import com.scottieknows.ignite.springdata.PersonBinarySerializer;
 
 @Configuration
+@EnableConfigurationProperties(DataStorageProperties.class)
 public class IgniteConfig {
 
     @Bean
     @Autowired
     public IgniteConfiguration igniteConfiguration(TcpDiscoveryIpFinder tcpResolver,
-            @Value("${IGNITE_HOME:#{systemProperties['java.io.tmpdir']}}") String igniteHome) {
+            ObjectProvider<List<CacheConfiguration<?, ?>>> cacheConfigurations,
+            DataStorageProperties dataStorageProperties,
+            @Value("${binaryCompactFooter:true}") boolean binaryCompactFooter,
+            @Value("${IGNITE_HOME:#{systemProperties['java.io.tmpdir']}}") String igniteHome,
+            @Value("${discoveryRanking:false}") boolean discoveryRanking,
+            @Value("${discoveryProbeTimeout:200}") long discoveryProbeTimeout,
+            @Value("${discoveryReachableTtl:300000}") long discoveryReachableTtl) {
         IgniteConfiguration igniteConfiguration = new IgniteConfiguration();
         igniteConfiguration.setIncludeEventTypes(EventType.EVTS_ALL);
         igniteConfiguration.setPeerClassLoadingEnabled(true);
         igniteConfiguration.setIgniteInstanceName("springDataNode");
         // need to set this or else there will slowness at startup
         igniteConfiguration.setIgniteHome(igniteHome);
-        TcpDiscoverySpi tcpDiscoverySpi = new TcpDiscoverySpi();
+        TcpDiscoverySpi tcpDiscoverySpi;
+        if (discoveryRanking) {
+            // joins try live and nearby nodes first instead of a random address
+            RankingIpFinder rankingIpFinder = new RankingIpFinder(tcpResolver);
+            rankingIpFinder.setProbeTimeout(discoveryProbeTimeout);
+            rankingIpFinder.setReachableTtl(discoveryReachableTtl);
+            tcpDiscoverySpi = new RankedTcpDiscoverySpi();
+            tcpDiscoverySpi.setIpFinder(rankingIpFinder);
+        } else {
+            tcpDiscoverySpi = new TcpDiscoverySpi();
+            tcpDiscoverySpi.setIpFinder(tcpResolver);
+        }
         igniteConfiguration.setDiscoverySpi(tcpDiscoverySpi);
-        tcpDiscoverySpi.setIpFinder(tcpResolver);
         tcpDiscoverySpi.setJoinTimeout(3000);
         tcpDiscoverySpi.setAckTimeout(3000);
         tcpDiscoverySpi.setSocketTimeout(3000);
         tcpDiscoverySpi.setNetworkTimeout(3000);
         tcpDiscoverySpi.failureDetectionTimeoutEnabled(true);
+        DataStorageConfiguration dataStorageConfiguration = dataStorageProperties.toDataStorageConfiguration();
+        if (dataStorageConfiguration != null) {
+            igniteConfiguration.setDataStorageConfiguration(dataStorageConfiguration);
+        }
+        igniteConfiguration.setBinaryConfiguration(binaryConfiguration(binaryCompactFooter));
+        // static caches contributed by the applications as CacheConfiguration beans
+        List<CacheConfiguration<?, ?>> caches = cacheConfigurations.getIfAvailable();
+        if (caches != null) {
+            igniteConfiguration.setCacheConfiguration(caches.toArray(new CacheConfiguration<?, ?>[caches.size()]));
+        }
         return igniteConfiguration;
     }
 
+    /**
+     * Binary configuration of every node, servers included, a node whose binary configuration is not
+     * the cluster's is refused when it joins.  Peer class loading does not deploy serializers, the
+     * classes of the types registered here have to be on the classpath of the server nodes too.
+     */
+    public static BinaryConfiguration binaryConfiguration(boolean compactFooter) {
+        // every object is stored in ignite's binary format, types can bring their own serializer
+        BinaryConfiguration binaryConfiguration = new BinaryConfiguration();
+        // without the field ids in every object, the schema is kept once per type
+        binaryConfiguration.setCompactFooter(compactFooter);
+        BinaryTypeConfiguration personBinaryType = new BinaryTypeConfiguration(Person.class.getName());
+        personBinaryType.setSerializer(new PersonBinarySerializer());
+        binaryConfiguration.setTypeConfigurations(Collections.singletonList(personBinaryType));
+        return binaryConfiguration;
+    }
+
+    /**
+     * Starts the ignite node in the background as soon as it is created, applications depend on this
+     * bean so that joining the cluster overlaps with the rest of the context initialization.
+     */
+    @Bean(initMethod="launch", destroyMethod="close")
+    @Autowired
+    public IgniteLauncher igniteLauncher(IgniteConfiguration igniteConfiguration) {
+        return new IgniteLauncher(igniteConfiguration);
+    }
+
+    /**
+     * The shared ignite instance, the name is the one the spring data repositories look up.  Lazy so
+     * that consumers injecting it with {@link Lazy} do not wait for the node to start.
+     */
+    @Bean(destroyMethod="")
+    @Lazy
+    @Autowired
+    public Ignite igniteInstance(IgniteLauncher igniteLauncher) {
+        return igniteLauncher.getIgnite();
+    }
+
     @Bean
     public TcpDiscoveryIpFinder tcpResolver() {
         TcpDiscoveryMulticastIpFinder tcpDiscoveryMulticastIpFinder = new TcpDiscoveryMulticastIpFinder();
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Owns the lifecycle of the single {@link Ignite} instance shared by the spring cache manager, the
+ * spring data repositories and application code.
+ * <p>
+ * {@link #launch()} starts the node on a background thread so that joining the cluster overlaps with
+ * the rest of the spring context initialization.  Consumers block in {@link #getIgnite()} only if they
+ * need the node before it is up, and as a lifecycle bean in the earliest phase the launcher holds
+ * back the context refresh (and with it the embedded servlet container) until the node has started.
+ */
+@ManagedResource(objectName="com.scottieknows.ignite:type=IgniteLauncher")
+public class IgniteLauncher implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(IgniteLauncher.class);
+
+    private final IgniteConfiguration igniteConfiguration;
+    private final CompletableFuture<Ignite> ignite = new CompletableFuture<>();
+    private volatile long startupMillis = -1;
+    private volatile boolean running;
+
+    public IgniteLauncher(IgniteConfiguration igniteConfiguration) {
+        this.igniteConfiguration = igniteConfiguration;
+    }
+
+    public void launch() {
+        // client mode is thread local, carry it over to the launcher thread
+        boolean clientMode = Ignition.isClientMode();
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                Ignition.setClientMode(clientMode);
+                ignite.complete(Ignition.start(igniteConfiguration));
+                startupMillis = System.currentTimeMillis() - start;
+                logger.info("ignite instance {} started in {} ms",
+                    igniteConfiguration.getIgniteInstanceName(), startupMillis);
+            } catch (Throwable t) {
+                ignite.completeExceptionally(t);
+            }
+        }, "ignite-launcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the started ignite instance, waiting for the node to join the cluster if necessary
+     */
+    public Ignite getIgnite() {
+        try {
+            return ignite.join();
+        } catch (CompletionException e) {
+            throw new IgniteException("Failed to start ignite instance " + igniteConfiguration.getIgniteInstanceName(),
+                e.getCause());
+        }
+    }
+
+    @ManagedAttribute(description="time it took the ignite node to start and join the cluster, -1 while starting")
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    @Override
+    public void start() {
+        getIgnite();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    /**
+     * Stops the ignite instance, invoked when the spring context is destroyed.
+     */
+    public void close() {
+        // a node that is still starting is stopped as soon as it is up
+        ignite.thenAccept(Ignite::close);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+}
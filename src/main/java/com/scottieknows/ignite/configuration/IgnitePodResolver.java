@@ -8,19 +8,28 @@ import static java.lang.String.*;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ignite.spi.IgniteSpiException;
@@ -32,20 +41,24 @@ import org.springframework.beans.factory.annotation.Value;
 
 import com.scottieknows.ignite.springcache.TimeUtils;
 
-import io.fabric8.kubernetes.api.model.DoneablePod;
+import io.fabric8.kubernetes.api.model.Node;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
 import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.PodStatus;
 import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.ConfigBuilder;
 import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
-import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
-import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
 
-public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
+public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter implements AddressLocality {
     private static final Logger logger = LoggerFactory.getLogger(IgnitePodResolver.class);
 
     private TimeUtils timeUtils = new TimeUtils();
@@ -54,7 +67,23 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
     private static final String K8S_TOKEN_FILE = "/var/run/secrets/kubernetes.io/serviceaccount/token";
     private static final String K8S_CA_CRT_FILE = "/var/run/secrets/kubernetes.io/serviceaccount/ca.crt";
 
-    private final Map<String, Set<String>> appLabelToPodMap = new HashMap<>();
+    private static final int HTTP_GONE = 410;
+    private static final String APP_LABEL = "app";
+    private static final String ZONE_LABEL = "failure-domain.beta.kubernetes.io/zone";
+
+    // discovery reads the current snapshot without locking, the watcher publishes a new one per event
+    private final AtomicReference<PodSnapshot> pods = new AtomicReference<>(PodSnapshot.EMPTY);
+    // resync runs off the watcher thread, one at a time
+    private final ExecutorService resyncExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "kube-pod-resync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // zone per k8s node, empty when the node has none, nodes that could not be read are not kept
+    private final Map<String, String> nodeZones = new ConcurrentHashMap<>();
+    private final LongAdder watchEvents = new LongAdder();
+    private volatile String lastResourceVersion;
+    private volatile Watch watch;
     private DefaultKubernetesClient client;
     private String oauthToken;
     private String namespace;
@@ -62,18 +91,32 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
     private String kubeMaster;
     @Value("${ignite.kube.appLabel:ignite}")
     private String appLabel;
+    @Value("${ignite.kube.listPageSize:500}")
+    private int listPageSize = 500;
+    // the k8s node this pod runs on, from the downward api
+    @Value("${ignite.kube.nodeName:${NODE_NAME:}}")
+    private String nodeName;
 
     @PostConstruct
     public void init() {
         setDefaults();
-        Config config = getConfig();
-        this.client = new DefaultKubernetesClient(config);
-        // ensure that the watcher does not override the map until init is complete
-        synchronized (appLabelToPodMap) {
-            appLabelToPodMap.clear();
-            client.pods().watch(new KubePodWatcher(this));
-            initializePodMap();
-            logger.info("initialized pod map {}", appLabelToPodMap);
+        if (client == null) {
+            this.client = new DefaultKubernetesClient(getConfig());
+        }
+        try {
+            sync();
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to list pods in namespace %s", namespace), e);
+        }
+        logger.info("initialized pod map {}", pods.get());
+    }
+
+    @PreDestroy
+    public void close() {
+        resyncExecutor.shutdownNow();
+        Watch watch = this.watch;
+        if (watch != null) {
+            watch.close();
         }
     }
 
@@ -86,28 +129,189 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
         }
     }
 
-    void initializePodMap() {
-        NonNamespaceOperation<Pod, PodList, DoneablePod, PodResource<Pod, DoneablePod>> op =
-            client.pods().inNamespace(namespace);
-        PodList list = op.list();
-        list.getItems().forEach(p -> {
-            String appLabel = getAppLabel(p.getMetadata());
-            if (appLabel == null) {
+    /**
+     * Retries {@link #sync()} with a backoff until the watch is open again.
+     */
+    void resync() {
+        long increment = 1000;
+        long backoff = 0;
+        while (!resyncExecutor.isShutdown()) {
+            try {
+                sync();
                 return;
+            } catch (Exception e) {
+                logger.error("problem resyncing with the k8s master, retrying: {}", e.getMessage(), e);
             }
-            String name = p.getStatus().getPodIP();
-            addPodToMap(appLabel, name);
-        });
+            timeUtils.sleep(Math.min(backoff += increment, 10000));
+        }
     }
 
-    void addPodToMap(String appLabel, String name) {
-        synchronized (appLabelToPodMap) {
-            Set<String> podSet = appLabelToPodMap.get(appLabel);
-            if (podSet == null) {
-                podSet = new HashSet<>();
-                appLabelToPodMap.put(appLabel, podSet);
+    /**
+     * Resumes the watch from the last resource version seen.  Only when that version has expired, or
+     * there is none yet, are the pods listed again, the current snapshot stays in service until the
+     * list is complete.
+     */
+    private void sync() throws IOException {
+        try {
+            watch();
+        } catch (KubernetesClientException e) {
+            if (e.getCode() != HTTP_GONE) {
+                throw e;
             }
-            podSet.add(name);
+            logger.info("resourceVersion={} expired, listing pods", lastResourceVersion);
+            lastResourceVersion = null;
+            watch();
+        }
+    }
+
+    private void watch() throws IOException {
+        String resourceVersion = lastResourceVersion;
+        if (resourceVersion == null) {
+            resourceVersion = initializePodMap();
+            lastResourceVersion = resourceVersion;
+        }
+        watch = client.pods().inNamespace(namespace).withLabel(APP_LABEL, appLabel)
+            .withResourceVersion(resourceVersion).watch(new KubePodWatcher(this));
+        logger.info("watching pods from resourceVersion={}", resourceVersion);
+    }
+
+    /**
+     * Replaces the pod map with the pods of this app in the namespace, listed {@code listPageSize} at a
+     * time.  Goes through the http client directly since this client version cannot page lists.
+     * @return resource version of the pod list
+     */
+    String initializePodMap() throws IOException {
+        PodSnapshot snapshot = PodSnapshot.EMPTY;
+        String resourceVersion;
+        String continueToken = null;
+        do {
+            PodList page = listPods(continueToken);
+            for (Pod p : page.getItems()) {
+                String appLabel = getAppLabel(p.getMetadata());
+                if (appLabel != null) {
+                    snapshot = snapshot.withPod(appLabel, p.getMetadata().getName(), getReachableIp(p), getNodeName(p));
+                }
+            }
+            resourceVersion = page.getMetadata().getResourceVersion();
+            continueToken = (String) page.getMetadata().getAdditionalProperties().get("continue");
+        } while (!StringUtils.isEmpty(continueToken));
+        pods.set(snapshot);
+        return resourceVersion;
+    }
+
+    private PodList listPods(String continueToken) throws IOException {
+        HttpUrl.Builder url = HttpUrl.get(new URL(client.getMasterUrl(), "api/v1/namespaces/" + namespace + "/pods"))
+            .newBuilder()
+            .addQueryParameter("labelSelector", APP_LABEL + "=" + appLabel)
+            .addQueryParameter("limit", Integer.toString(listPageSize));
+        if (continueToken != null) {
+            url.addQueryParameter("continue", continueToken);
+        }
+        Request request = new Request.Builder().get().url(url.build()).build();
+        try (Response response = client.getHttpClient().newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                // an expired continue token is a 410 as well, the list starts over
+                throw new KubernetesClientException(
+                    format("Failed to list pods in namespace %s: %s", namespace, response.message()), response.code(), null);
+            }
+            return Serialization.unmarshal(response.body().byteStream(), PodList.class);
+        }
+    }
+
+    void addPodToMap(String appLabel, String name, String ip, String nodeName) {
+        pods.updateAndGet(snapshot -> snapshot.withPod(appLabel, name, ip, nodeName));
+    }
+
+    void removePodFromMap(String appLabel, String name) {
+        pods.updateAndGet(snapshot -> snapshot.withoutPod(appLabel, name));
+    }
+
+    /**
+     * Immutable view of the pods per app label.  Each pod's {@link InetSocketAddress} is resolved once
+     * and reused by every later snapshot for as long as the pod keeps its ip.
+     */
+    static final class PodSnapshot {
+        static final PodSnapshot EMPTY = new PodSnapshot(Collections.emptyMap());
+
+        private final Map<String, Map<String, PodAddress>> appLabelToPods;
+        private final Map<String, Collection<InetSocketAddress>> appLabelToAddresses;
+        private final Map<InetSocketAddress, String> addressToNodeName;
+
+        private PodSnapshot(Map<String, Map<String, PodAddress>> appLabelToPods) {
+            this.appLabelToPods = appLabelToPods;
+            Map<String, Collection<InetSocketAddress>> addresses = new HashMap<>();
+            Map<InetSocketAddress, String> nodeNames = new HashMap<>();
+            appLabelToPods.forEach((label, podToAddress) -> {
+                Set<InetSocketAddress> labelAddresses = new LinkedHashSet<>();
+                for (PodAddress podAddress : podToAddress.values()) {
+                    labelAddresses.add(podAddress.address);
+                    if (podAddress.nodeName != null) {
+                        nodeNames.put(podAddress.address, podAddress.nodeName);
+                    }
+                }
+                addresses.put(label, Collections.unmodifiableList(new ArrayList<>(labelAddresses)));
+            });
+            this.appLabelToAddresses = addresses;
+            this.addressToNodeName = nodeNames;
+        }
+
+        PodSnapshot withPod(String appLabel, String name, String ip, String nodeName) {
+            if (ip == null) {
+                // not ready, terminating or gone, either way it is not reachable
+                return withoutPod(appLabel, name);
+            }
+            Map<String, PodAddress> podToAddress = appLabelToPods.getOrDefault(appLabel, Collections.emptyMap());
+            PodAddress podAddress = podToAddress.get(name);
+            if (podAddress != null && ip.equals(podAddress.address.getHostString())
+                    && Objects.equals(nodeName, podAddress.nodeName)) {
+                return this;
+            }
+            Map<String, PodAddress> newPodToAddress = new HashMap<>(podToAddress);
+            newPodToAddress.put(name, new PodAddress(new InetSocketAddress(ip, TcpDiscoverySpi.DFLT_PORT), nodeName));
+            return with(appLabel, newPodToAddress);
+        }
+
+        PodSnapshot withoutPod(String appLabel, String name) {
+            Map<String, PodAddress> podToAddress = appLabelToPods.get(appLabel);
+            if (podToAddress == null || !podToAddress.containsKey(name)) {
+                return this;
+            }
+            Map<String, PodAddress> newPodToAddress = new HashMap<>(podToAddress);
+            newPodToAddress.remove(name);
+            return with(appLabel, newPodToAddress);
+        }
+
+        private PodSnapshot with(String appLabel, Map<String, PodAddress> podToAddress) {
+            Map<String, Map<String, PodAddress>> newAppLabelToPods = new HashMap<>(appLabelToPods);
+            if (podToAddress.isEmpty()) {
+                newAppLabelToPods.remove(appLabel);
+            } else {
+                newAppLabelToPods.put(appLabel, podToAddress);
+            }
+            return new PodSnapshot(newAppLabelToPods);
+        }
+
+        Collection<InetSocketAddress> getAddresses(String appLabel) {
+            return appLabelToAddresses.getOrDefault(appLabel, Collections.emptyList());
+        }
+
+        String getNodeName(InetSocketAddress address) {
+            return addressToNodeName.get(address);
+        }
+
+        @Override
+        public String toString() {
+            return appLabelToAddresses.toString();
+        }
+    }
+
+    private static final class PodAddress {
+        private final InetSocketAddress address;
+        private final String nodeName;
+
+        private PodAddress(InetSocketAddress address, String nodeName) {
+            this.address = address;
+            this.nodeName = nodeName;
         }
     }
 
@@ -121,8 +325,9 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
 
         @Override
         public void eventReceived(Action action, Pod pod) {
+            watchEvents.increment();
             ObjectMeta metadata = pod.getMetadata();
-            PodStatus status = pod.getStatus();
+            lastResourceVersion = metadata.getResourceVersion();
             String ns = metadata.getNamespace();
             if (!Objects.equals(namespace, ns)) {
                 return;
@@ -136,14 +341,13 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
             if (appLabel == null) {
                 return;
             }
-            if (Action.DELETED == action) {
-                synchronized (appLabelToPodMap) {
-                    appLabelToPodMap.remove(metadata.getName());
-                }
+            String ip = (Action.DELETED == action) ? null : getReachableIp(pod);
+            if (ip == null) {
+                removePodFromMap(appLabel, metadata.getName());
                 logger.debug("pod appLabel={} name={} namespace={} removed from map",
                     appLabel, metadata.getName(), ns);
             } else {
-                addPodToMap(appLabel, status.getPodIP());
+                addPodToMap(appLabel, metadata.getName(), ip, getNodeName(pod));
                 logger.debug("pod appLabel={} name={} namespace={} added to map",
                     appLabel, metadata.getName(), ns);
             }
@@ -151,23 +355,17 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
 
         @Override
         public void onClose(KubernetesClientException cause) {
-            logger.error("k8s master connection lost: {}", cause.getMessage(), cause);
-            boolean first = true;
-            long increment = 1000;
-            long backoff = 0;
-            while (true) {
-                try {
-                    if (!first) {
-                        timeUtils.sleep(Math.min(backoff += increment, 10000) );
-                    }
-                    first = false;
-                    logger.info("reinitializing kubernetes client");
-                    kubeUriResolver.init();
-                    break;
-                } catch (Exception e) {
-                    logger.error("problem reinitializing kubnernetes client, retrying: {}", e.getMessage(), e);
-                }
+            if (cause == null) {
+                // closed on purpose
+                return;
+            }
+            if (cause.getCode() == HTTP_GONE) {
+                logger.info("k8s watch closed, resourceVersion={} expired", lastResourceVersion);
+                lastResourceVersion = null;
+            } else {
+                logger.error("k8s watch closed: {}", cause.getMessage(), cause);
             }
+            resyncExecutor.execute(kubeUriResolver::resync);
         }
 
     }
@@ -191,12 +389,76 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
         }
     }
 
+    /**
+     * Only pods that are running, ready and not terminating are worth a join attempt, every address
+     * that does not answer costs discovery a full join timeout.
+     * @return the pod's ip, or null if it should not be in the address set
+     */
+    static String getReachableIp(Pod pod) {
+        PodStatus status = pod.getStatus();
+        if (status == null || status.getPodIP() == null || pod.getMetadata().getDeletionTimestamp() != null
+                || !"Running".equals(status.getPhase())) {
+            return null;
+        }
+        List<PodCondition> conditions = status.getConditions();
+        if (conditions == null) {
+            return null;
+        }
+        for (PodCondition condition : conditions) {
+            if ("Ready".equals(condition.getType())) {
+                return "True".equals(condition.getStatus()) ? status.getPodIP() : null;
+            }
+        }
+        return null;
+    }
+
+    private static String getNodeName(Pod pod) {
+        return (pod.getSpec() == null) ? null : pod.getSpec().getNodeName();
+    }
+
+    /**
+     * Pods on this pod's k8s node are closest, then pods on nodes in the same zone.  Needs
+     * {@code ignite.kube.nodeName}, and read access to nodes for the zones.
+     */
+    @Override
+    public int distance(InetSocketAddress address) {
+        String podNodeName = pods.get().getNodeName(address);
+        if (podNodeName == null || StringUtils.isEmpty(nodeName)) {
+            return REMOTE;
+        }
+        if (podNodeName.equals(nodeName)) {
+            return SAME_NODE;
+        }
+        String zone = getZone(nodeName);
+        return (!zone.isEmpty() && zone.equals(getZone(podNodeName))) ? SAME_ZONE : REMOTE;
+    }
+
+    private String getZone(String nodeName) {
+        String zone = nodeZones.get(nodeName);
+        if (zone != null) {
+            return zone;
+        }
+        // read outside the map, discovery must not wait on the api server behind a bin lock
+        try {
+            Node node = client.nodes().withName(nodeName).get();
+            Map<String, String> labels = (node == null) ? null : node.getMetadata().getLabels();
+            zone = (labels == null) ? null : labels.get(ZONE_LABEL);
+            zone = (zone == null) ? "" : zone;
+        } catch (KubernetesClientException e) {
+            // not cached, the next lookup tries again
+            logger.warn("could not read the zone of k8s node {}: {}", nodeName, e.getMessage());
+            return "";
+        }
+        String previous = nodeZones.putIfAbsent(nodeName, zone);
+        return (previous == null) ? zone : previous;
+    }
+
     private String getAppLabel(ObjectMeta metadata) {
         Map<String, String> labels = metadata.getLabels();
         if (labels == null || labels.isEmpty()) {
             return null;
         }
-        return labels.get("app");
+        return labels.get(APP_LABEL);
     }
 
     // package private for tests
@@ -204,20 +466,37 @@ public class IgnitePodResolver extends TcpDiscoveryIpFinderAdapter {
         this.client = client;
     }
 
+    // package private for tests
+    String getLastResourceVersion() {
+        return lastResourceVersion;
+    }
+
+    // package private for tests
+    long getWatchEventCount() {
+        return watchEvents.sum();
+    }
+
+    // package private for tests
+    void setListPageSize(int listPageSize) {
+        this.listPageSize = listPageSize;
+    }
+
+    // package private for tests
+    void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
     // package private for tests
     void setTimeUtils(TimeUtils timeUtils) {
         this.timeUtils = timeUtils;
     }
 
+    /**
+     * Wait-free, returns the unmodifiable addresses of the current snapshot.
+     */
     @Override
     public Collection<InetSocketAddress> getRegisteredAddresses() throws IgniteSpiException {
-        Collection<InetSocketAddress> rtn = new ArrayList<>();
-        Collection<String> names = new ArrayList<>();
-        synchronized (appLabelToPodMap) {
-            names.addAll(appLabelToPodMap.get(appLabel));
-        }
-        names.forEach(name -> rtn.add(new InetSocketAddress(name, TcpDiscoverySpi.DFLT_PORT)));
-        return rtn;
+        return pods.get().getAddresses(appLabel);
     }
 
     @Override
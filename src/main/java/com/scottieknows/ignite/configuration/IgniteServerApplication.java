@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * Ignite server node with the discovery, binary and storage configuration of the applications, which
+ * only start client nodes and hold no data.  The storage settings, e.g. of the {@code persistence}
+ * profile, take effect on the nodes started from here:
+ * <pre>
+ * ./gradlew igniteServer -PserverArgs='--spring.profiles.active=persistence'
+ * </pre>
+ */
+// not a @SpringBootApplication, the applications scan this package and must not pick it up as a configuration
+@EnableAutoConfiguration
+@ComponentScan
+public class IgniteServerApplication {
+
+    public static void main(String[] args) {
+        // no web server, the ignite threads keep the process running
+        new SpringApplicationBuilder(IgniteServerApplication.class).web(false).run(args);
+    }
+
+}
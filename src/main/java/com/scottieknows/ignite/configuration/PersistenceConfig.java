@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Native persistence, enabled with the {@code persistence} profile.  The storage settings are in
+ * {@code application-persistence.properties}, see {@link DataStorageProperties}.  They only apply to
+ * server nodes, started with {@link IgniteServerApplication}, the applications' client nodes hold no
+ * data and only take part in the activation.
+ */
+@Configuration
+@Profile("persistence")
+public class PersistenceConfig {
+
+    @Bean(initMethod="start", destroyMethod="close")
+    @Autowired
+    public ClusterActivator clusterActivator(IgniteLauncher igniteLauncher,
+            @Value("${ignite.persistence.activationNodes:1}") int activationNodes,
+            @Value("${ignite.persistence.warmUp:true}") boolean warmUp) {
+        return new ClusterActivator(igniteLauncher, activationNodes, warmUp);
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.ignite.spi.IgniteSpiException;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tries the addresses of a {@link RankingIpFinder} in the order it ranked them, the base class
+ * shuffles them before every join attempt.
+ */
+public class RankedTcpDiscoverySpi extends TcpDiscoverySpi {
+    private static final Logger logger = LoggerFactory.getLogger(RankedTcpDiscoverySpi.class);
+
+    @Override
+    protected Collection<InetSocketAddress> resolvedAddresses() throws IgniteSpiException {
+        if (!(getIpFinder() instanceof RankingIpFinder)) {
+            return super.resolvedAddresses();
+        }
+        List<InetSocketAddress> resolved = new ArrayList<>();
+        for (InetSocketAddress address : registeredAddresses()) {
+            if (address.isUnresolved()) {
+                try {
+                    address = new InetSocketAddress(InetAddress.getByName(address.getHostName()), address.getPort());
+                } catch (UnknownHostException e) {
+                    logger.warn("failed to resolve discovery address {}: {}", address, e.getMessage());
+                    continue;
+                }
+            }
+            if (!resolved.contains(address)) {
+                resolved.add(address);
+            }
+        }
+        return resolved;
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ignite.spi.IgniteSpiContext;
+import org.apache.ignite.spi.IgniteSpiException;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.TcpDiscoveryIpFinder;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.TcpDiscoveryIpFinderAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands out the addresses of another ip finder best first, so that a joining node reaches a live node
+ * before it spends a join timeout on a dead one.  Addresses are ranked by
+ * <ol>
+ * <li>whether they accepted a tcp connection within {@code probeTimeout}, all of them are probed at
+ * once from a single selector</li>
+ * <li>whether they were recently reachable, accepting one within the last {@code reachableTtl}, so a
+ * node that is slow to accept right now still comes before one that never answered.  A probe only
+ * shows that an address answered, not that a join went through it.</li>
+ * <li>their {@link AddressLocality distance}, when the delegate knows it</li>
+ * </ol>
+ * Unreachable addresses are kept, last, in case the probe was wrong.  Use it with
+ * {@link RankedTcpDiscoverySpi}, {@link org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi} shuffles
+ * the addresses it gets.
+ */
+public class RankingIpFinder extends TcpDiscoveryIpFinderAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(RankingIpFinder.class);
+
+    private final TcpDiscoveryIpFinder delegate;
+    private final AddressLocality locality;
+    private final Map<InetSocketAddress, Long> lastReachable = new ConcurrentHashMap<>();
+    private long probeTimeout = 200;
+    private long reachableTtl = 300000;
+
+    public RankingIpFinder(TcpDiscoveryIpFinder delegate) {
+        this.delegate = delegate;
+        this.locality = (delegate instanceof AddressLocality) ? (AddressLocality) delegate : null;
+        setShared(delegate.isShared());
+    }
+
+    @Override
+    public Collection<InetSocketAddress> getRegisteredAddresses() throws IgniteSpiException {
+        List<InetSocketAddress> addresses = new ArrayList<>(delegate.getRegisteredAddresses());
+        if (addresses.size() < 2) {
+            return addresses;
+        }
+        long now = System.currentTimeMillis();
+        Set<InetSocketAddress> reachable = probe(addresses);
+        reachable.forEach(address -> lastReachable.put(address, now));
+        lastReachable.values().removeIf(time -> now - time > reachableTtl);
+        Map<InetSocketAddress, Integer> distances = new HashMap<>();
+        for (InetSocketAddress address : addresses) {
+            distances.put(address, (locality == null) ? AddressLocality.REMOTE : locality.distance(address));
+        }
+        // stable, addresses that rank the same keep the delegate's order
+        addresses.sort(Comparator
+            .comparing((InetSocketAddress address) -> !reachable.contains(address))
+            .thenComparing(address -> !lastReachable.containsKey(address))
+            .thenComparing(distances::get));
+        logger.debug("ranked discovery addresses {}, reachable {}", addresses, reachable);
+        return addresses;
+    }
+
+    /**
+     * @return the addresses that accepted a connection within {@code probeTimeout}
+     */
+    Set<InetSocketAddress> probe(Collection<InetSocketAddress> addresses) {
+        Set<InetSocketAddress> reachable = new HashSet<>();
+        try (Selector selector = Selector.open()) {
+            int pending = 0;
+            for (InetSocketAddress address : addresses) {
+                if (address.isUnresolved()) {
+                    continue;
+                }
+                SocketChannel channel = SocketChannel.open();
+                try {
+                    channel.configureBlocking(false);
+                    if (channel.connect(address)) {
+                        reachable.add(address);
+                        channel.close();
+                    } else {
+                        channel.register(selector, SelectionKey.OP_CONNECT, address);
+                        pending++;
+                    }
+                } catch (IOException e) {
+                    channel.close();
+                }
+            }
+            long deadline = System.nanoTime() + MILLISECONDS.toNanos(probeTimeout);
+            long remaining;
+            while (pending > 0 && (remaining = NANOSECONDS.toMillis(deadline - System.nanoTime())) > 0) {
+                selector.select(remaining);
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    pending--;
+                    try {
+                        if (((SocketChannel) key.channel()).finishConnect()) {
+                            reachable.add((InetSocketAddress) key.attachment());
+                        }
+                    } catch (IOException e) {
+                        // refused or unreachable
+                    }
+                    key.channel().close();
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        } catch (IOException e) {
+            logger.warn("could not probe discovery addresses, ranking without it: {}", e.getMessage());
+        }
+        return reachable;
+    }
+
+    @Override
+    public void onSpiContextInitialized(IgniteSpiContext spiCtx) throws IgniteSpiException {
+        super.onSpiContextInitialized(spiCtx);
+        delegate.onSpiContextInitialized(spiCtx);
+    }
+
+    @Override
+    public void onSpiContextDestroyed() {
+        super.onSpiContextDestroyed();
+        delegate.onSpiContextDestroyed();
+    }
+
+    @Override
+    public void initializeLocalAddresses(Collection<InetSocketAddress> addrs) throws IgniteSpiException {
+        delegate.initializeLocalAddresses(addrs);
+    }
+
+    @Override
+    public void registerAddresses(Collection<InetSocketAddress> addrs) throws IgniteSpiException {
+        delegate.registerAddresses(addrs);
+    }
+
+    @Override
+    public void unregisterAddresses(Collection<InetSocketAddress> addrs) throws IgniteSpiException {
+        delegate.unregisterAddresses(addrs);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    public void setProbeTimeout(long probeTimeout) {
+        this.probeTimeout = probeTimeout;
+    }
+
+    public void setReachableTtl(long reachableTtl) {
+        this.reachableTtl = reachableTtl;
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Non-blocking variant of {@link CachingController}.  Handlers return immediately and the servlet
+ * container thread is released while the cache operation is in flight.
+ */
+@RestController
+@RequestMapping("/hello/async")
+public class AsyncCachingController {
+
+    @Autowired
+    private CachingService cachingService;
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<String>> hello(@RequestParam("id") int id) {
+        return cachingService.getByIdAsync(id)
+            .thenApply(rtn -> new ResponseEntity<String>(rtn, HttpStatus.OK));
+    }
+
+    @PatchMapping
+    public CompletableFuture<ResponseEntity<String>> patch(@RequestBody HelloRequest helloRequest) {
+        return cachingService.putAsync(helloRequest.getId(), helloRequest.getValue())
+            .thenApply(rtn -> new ResponseEntity<String>(rtn, HttpStatus.OK));
+    }
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<String>> post(@RequestBody HelloRequest helloRequest) {
+        return cachingService.putAsync(helloRequest.getId(), helloRequest.getValue())
+            .thenApply(rtn -> new ResponseEntity<String>(rtn, HttpStatus.CREATED));
+    }
+
+    @PutMapping
+    public CompletableFuture<ResponseEntity<String>> put(@RequestBody HelloRequest helloRequest) {
+        return cachingService.putAsync(helloRequest.getId(), helloRequest.getValue())
+            .thenApply(rtn -> new ResponseEntity<String>(rtn, HttpStatus.OK));
+    }
+
+    @DeleteMapping
+    public CompletableFuture<ResponseEntity<String>> delete(@RequestParam("id") int id) {
+        return cachingService.removeByIdAsync(id)
+            .thenApply(removed -> new ResponseEntity<String>("deleted", HttpStatus.OK));
+    }
+
+}
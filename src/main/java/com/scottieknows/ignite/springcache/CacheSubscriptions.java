@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.event.CacheEntryEvent;
+
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
+import org.apache.ignite.cache.query.ContinuousQuery;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Delivers the updates and removals of a spring cache to local listeners, through an ignite
+ * {@link ContinuousQuery}, so that data derived from a cache can be invalidated as it changes instead
+ * of expiring it early or polling.
+ * <p>
+ * The remote filter runs on the server nodes and only the events it accepts are sent.  The server
+ * nodes buffer the events of a subscription and send them {@code bufferSize} at a time, or after
+ * {@code timeInterval} milliseconds if fewer are waiting, and a listener gets each batch in one call.
+ * Listeners run on ignite threads, they must be quick and must not call back into the cache.
+ */
+public class CacheSubscriptions {
+    private static final Logger logger = LoggerFactory.getLogger(CacheSubscriptions.class);
+    // what the spring cache stores for a cached null value, the class is not public
+    private static final String NULL_VALUE = "org.apache.ignite.cache.spring.SpringCache$NullValue";
+
+    private final CacheManager igniteCacheManager;
+    private final int bufferSize;
+    private final long timeInterval;
+
+    public CacheSubscriptions(CacheManager igniteCacheManager, int bufferSize, long timeInterval) {
+        this.igniteCacheManager = igniteCacheManager;
+        this.bufferSize = bufferSize;
+        this.timeInterval = timeInterval;
+    }
+
+    /**
+     * Cancels the subscription.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @param remoteFilter runs on the server nodes, null to receive every event.  Its class must be
+     * on the server nodes' classpath or reach them through peer class loading.  It gets the values as
+     * stored, a cached null value is a placeholder object that is not a {@code V}.
+     * @param listener called with each batch of created, updated and removed entries, the value of a
+     * removed entry or of a cached null value is null
+     */
+    public <K, V> Subscription subscribe(String cacheName, CacheEntryEventSerializableFilter<K, V> remoteFilter,
+                                         Consumer<List<CacheEntryEvent<? extends K, ? extends V>>> listener) {
+        ContinuousQuery<K, V> query = new ContinuousQuery<>();
+        query.setPageSize(bufferSize);
+        query.setTimeInterval(timeInterval);
+        if (remoteFilter != null) {
+            query.setRemoteFilterFactory(FactoryBuilder.factoryOf(remoteFilter));
+        }
+        query.setLocalListener(events -> {
+            List<CacheEntryEvent<? extends K, ? extends V>> batch = new ArrayList<>();
+            events.forEach(event -> batch.add(unwrapNull(event)));
+            try {
+                listener.accept(batch);
+            } catch (RuntimeException e) {
+                logger.error("listener of cache {} failed on {} events: {}", cacheName, batch.size(), e.getMessage(), e);
+            }
+        });
+        QueryCursor<javax.cache.Cache.Entry<K, V>> cursor = nativeCache(cacheName).query(query);
+        logger.info("subscribed to cache {}", cacheName);
+        return cursor::close;
+    }
+
+    /**
+     * Removes the entries of {@code derived} whose key is created, updated or removed in the cache.
+     */
+    public <K> Subscription invalidate(String cacheName, Map<K, ?> derived) {
+        return this.<K, Object>subscribe(cacheName, null, events -> events.forEach(event -> derived.remove(event.getKey())));
+    }
+
+    private static <K, V> CacheEntryEvent<? extends K, ? extends V> unwrapNull(CacheEntryEvent<? extends K, ? extends V> event) {
+        if (!isNull(event.getValue()) && !isNull(event.getOldValue())) {
+            return event;
+        }
+        return new NullUnwrappedEvent<K, V>(event);
+    }
+
+    private static boolean isNull(Object value) {
+        return value != null && NULL_VALUE.equals(value.getClass().getName());
+    }
+
+    private static class NullUnwrappedEvent<K, V> extends CacheEntryEvent<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final CacheEntryEvent<? extends K, ? extends V> event;
+
+        @SuppressWarnings("unchecked")
+        NullUnwrappedEvent(CacheEntryEvent<? extends K, ? extends V> event) {
+            super((javax.cache.Cache<K, V>) event.getSource(), event.getEventType());
+            this.event = event;
+        }
+
+        @Override
+        public K getKey() {
+            return event.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return isNull(event.getValue()) ? null : event.getValue();
+        }
+
+        @Override
+        public V getOldValue() {
+            return isNull(event.getOldValue()) ? null : event.getOldValue();
+        }
+
+        @Override
+        public boolean isOldValueAvailable() {
+            return event.isOldValueAvailable();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+            return event.unwrap(clazz);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> IgniteCache<K, V> nativeCache(String cacheName) {
+        Cache cache = igniteCacheManager.getCache(cacheName);
+        return (IgniteCache<K, V>) cache.getNativeCache();
+    }
+
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.cache.configuration.FactoryBuilder;
+
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.affinity.rendezvous.RendezvousAffinityFunction;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.NearCacheConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Topology, data region, expiry and near cache eviction of the spring caches by cache name, e.g.
+ * <pre>
+ * ignite.caches.ids.mode=PARTITIONED
+ * ignite.caches.ids.backups=1
+ * ignite.caches.ids.partitions=512
+ * ignite.caches.ids.dataRegion=ids
+ * ignite.caches.ids.createdTtl=600000
+ * ignite.caches.ids.near.policy=FIFO
+ * ignite.caches.ids.near.maxMemorySize=67108864
+ * </pre>
+ * Caches that are not listed keep the replicated default of the cache manager, never expire and use
+ * the {@code evictionPolicy} bean in their near cache.  A data region has to be configured on the
+ * server nodes, see {@link com.scottieknows.ignite.configuration.DataStorageProperties}.
+ */
+@ConfigurationProperties(prefix="ignite")
+public class CacheTopologyProperties {
+
+    private Map<String, CacheTopology> caches = new HashMap<>();
+
+    public Map<String, CacheTopology> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, CacheTopology> caches) {
+        this.caches = caches;
+    }
+
+    public static class CacheTopology {
+        private CacheMode mode = CacheMode.REPLICATED;
+        private int backups = 1;
+        private int partitions = RendezvousAffinityFunction.DFLT_PARTITION_COUNT;
+        private boolean excludeNeighbors;
+        private boolean readFromBackup;
+        private String dataRegion;
+        private long createdTtl;
+        private long accessedTtl;
+        private long modifiedTtl;
+        private boolean eagerTtl = CacheConfiguration.DFLT_EAGER_TTL;
+        private NearCache near;
+
+        /**
+         * Replicated caches write every entry to every server node, partitioned caches write it to its
+         * primary and {@code backups} other nodes, picked by a rendezvous affinity over {@code partitions}.
+         */
+        void applyTo(CacheConfiguration<?, ?> cacheConfiguration) {
+            cacheConfiguration.setCacheMode(mode);
+            if (dataRegion != null) {
+                cacheConfiguration.setDataRegionName(dataRegion);
+            }
+            if (mode == CacheMode.PARTITIONED) {
+                cacheConfiguration.setBackups(backups);
+                // excludeNeighbors keeps a primary and its backups off the same host
+                cacheConfiguration.setAffinity(new RendezvousAffinityFunction(excludeNeighbors, partitions));
+                // off, single key reads from a client go to the primary rather than any owner
+                cacheConfiguration.setReadFromBackup(readFromBackup);
+            }
+            if (createdTtl > 0 || accessedTtl > 0 || modifiedTtl > 0) {
+                cacheConfiguration.setExpiryPolicyFactory(
+                    FactoryBuilder.factoryOf(new TtlExpiryPolicy(createdTtl, accessedTtl, modifiedTtl)));
+            }
+            // eager expired entries are removed by a background thread on the server nodes, lazy ones
+            // stay in memory and are only dropped when they are read
+            cacheConfiguration.setEagerTtl(eagerTtl);
+        }
+
+        public CacheMode getMode() {
+            return mode;
+        }
+
+        public void setMode(CacheMode mode) {
+            this.mode = mode;
+        }
+
+        public int getBackups() {
+            return backups;
+        }
+
+        public void setBackups(int backups) {
+            this.backups = backups;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+
+        public boolean isExcludeNeighbors() {
+            return excludeNeighbors;
+        }
+
+        public void setExcludeNeighbors(boolean excludeNeighbors) {
+            this.excludeNeighbors = excludeNeighbors;
+        }
+
+        public boolean isReadFromBackup() {
+            return readFromBackup;
+        }
+
+        public void setReadFromBackup(boolean readFromBackup) {
+            this.readFromBackup = readFromBackup;
+        }
+
+        public String getDataRegion() {
+            return dataRegion;
+        }
+
+        public void setDataRegion(String dataRegion) {
+            this.dataRegion = dataRegion;
+        }
+
+        /**
+         * @return milliseconds a created entry lives, 0 to never expire it
+         */
+        public long getCreatedTtl() {
+            return createdTtl;
+        }
+
+        public void setCreatedTtl(long createdTtl) {
+            this.createdTtl = createdTtl;
+        }
+
+        /**
+         * @return milliseconds an entry lives after it is read, 0 to leave its expiry as it is
+         */
+        public long getAccessedTtl() {
+            return accessedTtl;
+        }
+
+        public void setAccessedTtl(long accessedTtl) {
+            this.accessedTtl = accessedTtl;
+        }
+
+        /**
+         * @return milliseconds an entry lives after it is updated, 0 to leave its expiry as it is
+         */
+        public long getModifiedTtl() {
+            return modifiedTtl;
+        }
+
+        public void setModifiedTtl(long modifiedTtl) {
+            this.modifiedTtl = modifiedTtl;
+        }
+
+        public boolean isEagerTtl() {
+            return eagerTtl;
+        }
+
+        public void setEagerTtl(boolean eagerTtl) {
+            this.eagerTtl = eagerTtl;
+        }
+
+        /**
+         * @return eviction of the cache's near cache, null for the {@code evictionPolicy} bean
+         */
+        public NearCache getNear() {
+            return near;
+        }
+
+        public void setNear(NearCache near) {
+            this.near = near;
+        }
+    }
+
+    /**
+     * Eviction policy of a near cache, see {@link EvictionPolicyType}.  Near caches are only started
+     * when the cache manager has a near cache configuration.
+     */
+    public static class NearCache {
+        private EvictionPolicyType policy = EvictionPolicyType.LRU;
+        private int maxSize = 10000;
+        private long maxMemorySize;
+        private int batchSize = 1;
+
+        NearCacheConfiguration<Object, Object> toNearCacheConfiguration(NearCacheConfiguration<Object, Object> defaults) {
+            NearCacheConfiguration<Object, Object> nearCacheConfiguration = new NearCacheConfiguration<>(defaults);
+            nearCacheConfiguration.setNearEvictionPolicy(policy.create(maxSize, maxMemorySize, batchSize));
+            return nearCacheConfiguration;
+        }
+
+        public EvictionPolicyType getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(EvictionPolicyType policy) {
+            this.policy = policy;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getMaxMemorySize() {
+            return maxMemorySize;
+        }
+
+        public void setMaxMemorySize(long maxMemorySize) {
+            this.maxMemorySize = maxMemorySize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+}
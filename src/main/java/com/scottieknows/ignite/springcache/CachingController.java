@@ -21,19 +21,28 @@
  */
 package com.scottieknows.ignite.springcache;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-@RestController("/hello")
+import com.scottieknows.ignite.springcache.CachingService.CompareAndSetResult;
+
+@RestController
+@RequestMapping("/hello")
 public class CachingController {
 
     @Autowired
@@ -46,27 +55,61 @@ public class CachingController {
 //        return new ResponseEntity<String>("hi2", HttpStatus.OK);
     }
 
+    @GetMapping(params="ids")
+    public ResponseEntity<Map<Integer, String>> hello(@RequestParam("ids") List<Integer> ids) {
+        Map<Integer, String> rtn = cachingService.getAll(ids);
+        return new ResponseEntity<Map<Integer, String>>(rtn, HttpStatus.OK);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Integer, String>> postBatch(@RequestBody List<HelloRequest> helloRequests) {
+        Map<Integer, String> values = new LinkedHashMap<>();
+        helloRequests.forEach(r -> values.put(r.getId(), r.getValue()));
+        cachingService.putAll(values);
+        return new ResponseEntity<Map<Integer, String>>(values, HttpStatus.CREATED);
+    }
+
     @PatchMapping
     public ResponseEntity<String> patch(@RequestBody HelloRequest helloRequest) {
-        cachingService.put(helloRequest.getId(), helloRequest.getValue());
-        String rtn = cachingService.getById(helloRequest.getId());
+        String rtn = cachingService.put(helloRequest.getId(), helloRequest.getValue());
         return new ResponseEntity<String>(rtn, HttpStatus.OK);
     }
 
     @PostMapping
     public ResponseEntity<String> post(@RequestBody HelloRequest helloRequest) {
-        cachingService.put(helloRequest.getId(), helloRequest.getValue());
-        String rtn = cachingService.getById(helloRequest.getId());
+        String rtn = cachingService.put(helloRequest.getId(), helloRequest.getValue());
         return new ResponseEntity<String>(rtn, HttpStatus.CREATED);
     }
 
+    @PostMapping("/if-absent")
+    public ResponseEntity<String> postIfAbsent(@RequestBody HelloRequest helloRequest) {
+        String existing = cachingService.putIfAbsent(helloRequest.getId(), helloRequest.getValue());
+        if (existing != null) {
+            return new ResponseEntity<String>(existing, HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<String>(helloRequest.getValue(), HttpStatus.CREATED);
+    }
+
     @PutMapping
     public ResponseEntity<String> put(@RequestBody HelloRequest helloRequest) {
-        cachingService.put(helloRequest.getId(), helloRequest.getValue());
-        String rtn = cachingService.getById(helloRequest.getId());
+        String rtn = cachingService.put(helloRequest.getId(), helloRequest.getValue());
         return new ResponseEntity<String>(rtn, HttpStatus.OK);
     }
 
+    /**
+     * Compare-and-set, the value is only replaced if it currently equals {@code expected}.  An empty
+     * {@code expected} means the id is not cached.  On a conflict the currently cached value is
+     * returned so that the client can retry without a read.
+     */
+    @PutMapping(params="expected")
+    public ResponseEntity<String> compareAndSet(@RequestParam(value="expected", required=false) String expected,
+                                                @RequestBody HelloRequest helloRequest) {
+        CompareAndSetResult result = cachingService.compareAndSet(
+            helloRequest.getId(), StringUtils.isEmpty(expected) ? null : expected, helloRequest.getValue());
+        HttpStatus status = result.isSwapped() ? HttpStatus.OK : HttpStatus.CONFLICT;
+        return new ResponseEntity<String>(result.getValue(), status);
+    }
+
     @DeleteMapping
     public ResponseEntity<String> delete(@RequestParam("id") int id) {
         cachingService.removeById(id);
@@ -21,6 +21,21 @@
  */
 package com.scottieknows.ignite.springcache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CachePeekMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -28,9 +43,16 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class CachingService {
+    private static final Logger logger = LoggerFactory.getLogger(CachingService.class);
+
+    static final String IDS_CACHE = "ids";
+    private static final CachePeekMode[] NEAR = { CachePeekMode.NEAR };
+
+    @Autowired
+    private CacheManager cacheManager;
 
     @SuppressWarnings("unused")
-    @Cacheable(value="ids", key="#id")
+    @Cacheable(value="ids", key="#id", sync=true)
     public String getById(int id) {
         return null;
     }
@@ -45,4 +67,158 @@ public class CachingService {
     @CacheEvict(value="ids", key="#id")
     public void removeById(int id) {}
 
+    /**
+     * Stores the value only if the id is not already cached.  An id cached as a miss counts as absent,
+     * getAndPutIfAbsent would see the placeholder and keep it.
+     * @return the value already cached for the id, or null if the value was stored
+     */
+    public String putIfAbsent(int id, String value) {
+        return toValue(idsCache().invoke(id, new CompareAndSetProcessor(), null, value));
+    }
+
+    /**
+     * Replaces the cached value only if it currently equals the expected value.  The comparison and the
+     * write happen atomically on the primary node.
+     * @param expected value the caller last observed, null meaning the id is not cached
+     * @return result holding the value observed before the operation
+     */
+    public CompareAndSetResult compareAndSet(int id, String expected, String value) {
+        String previous = toValue(idsCache().invoke(id, new CompareAndSetProcessor(), expected, value));
+        boolean swapped = Objects.equals(previous, expected);
+        return new CompareAndSetResult(swapped, swapped ? value : previous);
+    }
+
+    public static class CompareAndSetResult {
+        private final boolean swapped;
+        private final String value;
+
+        CompareAndSetResult(boolean swapped, String value) {
+            this.swapped = swapped;
+            this.value = value;
+        }
+
+        public boolean isSwapped() {
+            return swapped;
+        }
+
+        /**
+         * @return the new value if the swap succeeded, otherwise the value that is currently cached
+         */
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Bulk loads the "ids" cache from its cache store, each server node loads its own share in parallel.
+     */
+    public void loadCache() {
+        long start = System.currentTimeMillis();
+        IgniteCache<Object, Object> cache = idsCache();
+        cache.loadCache(null);
+        logger.info("loaded cache {} from its store in {} ms", IDS_CACHE, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Bulk lookup against the "ids" cache.  Entries already held in the local near cache are answered
+     * without a network hop, the remaining ids are fetched from the cluster in a single getAll.
+     * @param ids ids to look up
+     * @return map of id to value, ids that are not cached or cached as a miss are omitted
+     */
+    public Map<Integer, String> getAll(Collection<Integer> ids) {
+        IgniteCache<Object, Object> cache = idsCache();
+        Map<Integer, String> rtn = new HashMap<>();
+        Set<Object> misses = new HashSet<>();
+        for (Integer id : ids) {
+            Object value = cache.localPeek(id, NEAR);
+            if (value == null) {
+                misses.add(id);
+            } else if (value instanceof String) {
+                rtn.put(id, (String) value);
+            }
+        }
+        if (!misses.isEmpty()) {
+            // cached misses come back as the placeholder and are left out like the ids that are not cached
+            cache.getAll(misses).forEach((id, value) -> {
+                if (value instanceof String) {
+                    rtn.put((Integer) id, (String) value);
+                }
+            });
+        }
+        return rtn;
+    }
+
+    /**
+     * Bulk write to the "ids" cache with a single putAll.  Entries with a null value are evicted.
+     * @param values map of id to value
+     */
+    public void putAll(Map<Integer, String> values) {
+        IgniteCache<Object, Object> cache = idsCache();
+        // sorted so that concurrent bulk writes always lock keys in the same order
+        Map<Object, Object> puts = new TreeMap<>();
+        Set<Object> removes = new HashSet<>();
+        values.forEach((id, value) -> {
+            if (value == null) {
+                removes.add(id);
+            } else {
+                puts.put(id, value);
+            }
+        });
+        if (!puts.isEmpty()) {
+            cache.putAll(puts);
+        }
+        if (!removes.isEmpty()) {
+            cache.removeAll(removes);
+        }
+    }
+
+    /**
+     * Non-blocking lookup against the "ids" cache.  Unlike {@link #getById(int)} a miss is not
+     * recorded in the cache.
+     */
+    public CompletableFuture<String> getByIdAsync(int id) {
+        return IgniteFutures.toCompletableFuture(idsCache().getAsync(id)).thenApply(this::toValue);
+    }
+
+    /**
+     * Non-blocking write to the "ids" cache, a null value evicts the entry.
+     * @return future completing with the stored value once the write is acknowledged
+     */
+    public CompletableFuture<String> putAsync(int id, String value) {
+        if (value == null) {
+            return removeByIdAsync(id).thenApply(removed -> null);
+        }
+        return IgniteFutures.toCompletableFuture(idsCache().putAsync(id, value)).thenApply(v -> value);
+    }
+
+    /**
+     * Non-blocking eviction from the "ids" cache.
+     * @return future completing with true if an entry was removed
+     */
+    public CompletableFuture<Boolean> removeByIdAsync(int id) {
+        return IgniteFutures.toCompletableFuture(idsCache().removeAsync(id));
+    }
+
+    /**
+     * @return ids currently held in this node's near cache
+     */
+    public Set<Integer> nearCacheKeys() {
+        Set<Integer> rtn = new HashSet<>();
+        idsCache().localEntries(NEAR).forEach(entry -> rtn.add((Integer) entry.getKey()));
+        return rtn;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IgniteCache<Object, Object> idsCache() {
+        return (IgniteCache<Object, Object>) cacheManager.getCache(IDS_CACHE).getNativeCache();
+    }
+
+    /**
+     * {@link Cacheable} misses are stored by the spring cache as a null placeholder object, only
+     * real values are returned to callers
+     */
+    private String toValue(Object value) {
+        return (value instanceof String) ? (String) value : null;
+    }
+
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.Objects;
+
+import javax.cache.processor.MutableEntry;
+
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+/**
+ * Atomically replaces the value of an entry when it currently holds the expected value, executed on
+ * the primary node so that the check and the write are a single cluster operation.
+ * <p>
+ * Arguments are the expected value (null meaning absent) followed by the new value (null removes the
+ * entry).  Returns the value held before the operation, the swap succeeded if that equals the
+ * expected value.
+ */
+public class CompareAndSetProcessor implements CacheEntryProcessor<Object, Object, Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object process(MutableEntry<Object, Object> entry, Object... arguments) {
+        Object expected = arguments[0];
+        Object value = arguments[1];
+        // anything that is not a String is the placeholder spring stores for a cached miss
+        Object current = (entry.getValue() instanceof String) ? entry.getValue() : null;
+        if (!Objects.equals(current, expected)) {
+            return current;
+        }
+        if (value == null) {
+            entry.remove();
+        } else {
+            entry.setValue(value);
+        }
+        return current;
+    }
+
+}
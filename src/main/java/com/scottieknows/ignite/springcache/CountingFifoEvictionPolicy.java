@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ignite.cache.eviction.fifo.FifoEvictionPolicy;
+
+/**
+ * {@link FifoEvictionPolicy} that counts the entries it shrinks out of the near cache.
+ */
+public class CountingFifoEvictionPolicy<K, V> extends FifoEvictionPolicy<K, V> implements CountingEvictionPolicy<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient LongAdder evictions = new LongAdder();
+
+    public CountingFifoEvictionPolicy() {
+    }
+
+    public CountingFifoEvictionPolicy(int max) {
+        super(max);
+    }
+
+    @Override
+    protected int shrink0() {
+        int size = super.shrink0();
+        if (size >= 0) {
+            evictions.increment();
+        }
+        return size;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import org.apache.ignite.cache.eviction.AbstractEvictionPolicy;
+
+/**
+ * Near cache eviction policies that can be picked from properties, all of them count their evictions.
+ * <ul>
+ * <li>{@code LRU} evicts the least recently read or written entry.</li>
+ * <li>{@code FIFO} evicts the oldest entry, reads do not reorder the queue so it is the cheapest to
+ * maintain under concurrent reads.</li>
+ * <li>{@code SORTED} evicts the entry with the smallest key, the keys have to be {@link Comparable}.</li>
+ * </ul>
+ */
+public enum EvictionPolicyType {
+    LRU, FIFO, SORTED;
+
+    /**
+     * @param maxSize most entries the near cache holds, 0 for no limit
+     * @param maxMemorySize most bytes of keys and values the near cache holds, 0 for no limit
+     * @param batchSize entries evicted at once when a limit is crossed
+     */
+    public <K, V> AbstractEvictionPolicy<K, V> create(int maxSize, long maxMemorySize, int batchSize) {
+        AbstractEvictionPolicy<K, V> evictionPolicy;
+        switch (this) {
+        case FIFO:
+            evictionPolicy = new CountingFifoEvictionPolicy<>();
+            break;
+        case SORTED:
+            evictionPolicy = new CountingSortedEvictionPolicy<>();
+            break;
+        default:
+            evictionPolicy = new CountingLruEvictionPolicy<>();
+        }
+        evictionPolicy.setMaxSize(maxSize);
+        evictionPolicy.setMaxMemorySize(maxMemorySize);
+        evictionPolicy.setBatchSize(batchSize);
+        return evictionPolicy;
+    }
+
+}
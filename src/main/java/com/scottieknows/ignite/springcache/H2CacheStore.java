@@ -0,0 +1,301 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import static java.lang.String.*;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.cache.Cache.Entry;
+import javax.cache.integration.CacheLoaderException;
+import javax.cache.integration.CacheWriterException;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.store.CacheStoreAdapter;
+import org.apache.ignite.lang.IgniteBiInClosure;
+import org.apache.ignite.lifecycle.LifecycleAware;
+import org.apache.ignite.resources.CacheNameResource;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link org.apache.ignite.cache.store.CacheStore} that persists entries to an embedded H2 database
+ * local to each server node.  Keys and values are stored JDK serialized in a single table keyed by
+ * cache name, so one database can back any number of caches.
+ * <p>
+ * Meant to run behind write-behind, the batches handed to {@link #writeAll(Collection)} and
+ * {@link #deleteAll(Collection)} by the flusher are written as one JDBC batch in one transaction.
+ * For read-through, {@link #loadAll(Iterable)} fetches a batch of misses with chunked IN queries and
+ * {@link #loadCache(IgniteBiInClosure, Object...)} scans the table with parallel row id range scans.
+ */
+public class H2CacheStore extends CacheStoreAdapter<Object, Object> implements LifecycleAware {
+    private static final Logger logger = LoggerFactory.getLogger(H2CacheStore.class);
+
+    private static final String CREATE_TABLE =
+        "CREATE TABLE IF NOT EXISTS CACHE_ENTRIES (CACHE_NAME VARCHAR(255) NOT NULL, " +
+        "ENTRY_KEY VARBINARY NOT NULL, ENTRY_VALUE VARBINARY, PRIMARY KEY (CACHE_NAME, ENTRY_KEY))";
+    private static final String SELECT =
+        "SELECT ENTRY_VALUE FROM CACHE_ENTRIES WHERE CACHE_NAME = ? AND ENTRY_KEY = ?";
+    private static final String MERGE =
+        "MERGE INTO CACHE_ENTRIES (CACHE_NAME, ENTRY_KEY, ENTRY_VALUE) KEY (CACHE_NAME, ENTRY_KEY) VALUES (?, ?, ?)";
+    private static final String SELECT_ALL =
+        "SELECT ENTRY_KEY, ENTRY_VALUE FROM CACHE_ENTRIES WHERE CACHE_NAME = ? AND ENTRY_KEY IN (%s)";
+    private static final String ROW_ID_RANGE =
+        "SELECT MIN(_ROWID_), MAX(_ROWID_) FROM CACHE_ENTRIES WHERE CACHE_NAME = ?";
+    private static final String SCAN =
+        "SELECT ENTRY_KEY, ENTRY_VALUE FROM CACHE_ENTRIES WHERE CACHE_NAME = ? AND _ROWID_ BETWEEN ? AND ?";
+    private static final String DELETE =
+        "DELETE FROM CACHE_ENTRIES WHERE CACHE_NAME = ? AND ENTRY_KEY = ?";
+
+    private static final int LOAD_ALL_CHUNK_SIZE = 256;
+
+    private final String url;
+    private final int loadCacheThreads;
+    @CacheNameResource
+    private String cacheName;
+    private volatile JdbcConnectionPool pool;
+
+    public H2CacheStore(String url, int loadCacheThreads) {
+        this.url = url;
+        this.loadCacheThreads = loadCacheThreads;
+    }
+
+    @Override
+    public void start() throws IgniteException {}
+
+    @Override
+    public void stop() throws IgniteException {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+
+    /**
+     * The database is opened on first use rather than in {@link #start()}, ignite also instantiates
+     * the store on client nodes which never read or write through it.
+     */
+    private JdbcConnectionPool pool() {
+        JdbcConnectionPool rtn = pool;
+        if (rtn != null) {
+            return rtn;
+        }
+        synchronized (this) {
+            if (pool == null) {
+                JdbcConnectionPool newPool = JdbcConnectionPool.create(url, "sa", "");
+                try (Connection conn = newPool.getConnection(); Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate(CREATE_TABLE);
+                } catch (SQLException e) {
+                    newPool.dispose();
+                    throw new IgniteException(
+                        format("Failed to initialize cache store for cache %s at %s", cacheName, url), e);
+                }
+                logger.info("started h2 cache store for cache {} at {}", cacheName, url);
+                pool = newPool;
+            }
+            return pool;
+        }
+    }
+
+    @Override
+    public Object load(Object key) throws CacheLoaderException {
+        try (Connection conn = pool().getConnection(); PreparedStatement stmt = conn.prepareStatement(SELECT)) {
+            stmt.setString(1, cacheName);
+            stmt.setBytes(2, serialize(key));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? deserialize(rs.getBytes(1)) : null;
+            }
+        } catch (SQLException e) {
+            throw new CacheLoaderException(format("Failed to load key %s from cache %s", key, cacheName), e);
+        }
+    }
+
+    @Override
+    public Map<Object, Object> loadAll(Iterable<? extends Object> keys) throws CacheLoaderException {
+        Map<Object, Object> rtn = new HashMap<>();
+        List<byte[]> chunk = new ArrayList<>(LOAD_ALL_CHUNK_SIZE);
+        try (Connection conn = pool().getConnection()) {
+            Iterator<? extends Object> it = keys.iterator();
+            while (it.hasNext()) {
+                chunk.add(serialize(it.next()));
+                if (chunk.size() == LOAD_ALL_CHUNK_SIZE || !it.hasNext()) {
+                    loadChunk(conn, chunk, rtn);
+                    chunk.clear();
+                }
+            }
+        } catch (SQLException e) {
+            throw new CacheLoaderException(format("Failed to load keys from cache %s", cacheName), e);
+        }
+        return rtn;
+    }
+
+    private void loadChunk(Connection conn, List<byte[]> keys, Map<Object, Object> rtn) throws SQLException {
+        String params = String.join(",", Collections.nCopies(keys.size(), "?"));
+        try (PreparedStatement stmt = conn.prepareStatement(format(SELECT_ALL, params))) {
+            stmt.setString(1, cacheName);
+            for (int i = 0; i < keys.size(); i++) {
+                stmt.setBytes(i + 2, keys.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rtn.put(deserialize(rs.getBytes(1)), deserialize(rs.getBytes(2)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Bulk loads every entry of the cache, the table is split into row id ranges that are scanned in
+     * parallel.  Ignite invokes this on every server node and keeps the entries each node owns.
+     */
+    @Override
+    public void loadCache(IgniteBiInClosure<Object, Object> clo, Object... args) throws CacheLoaderException {
+        long start = System.currentTimeMillis();
+        long min;
+        long max;
+        try (Connection conn = pool().getConnection(); PreparedStatement stmt = conn.prepareStatement(ROW_ID_RANGE)) {
+            stmt.setString(1, cacheName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                min = rs.getLong(1);
+                max = rs.getLong(2);
+                if (rs.wasNull()) {
+                    return;
+                }
+            }
+        } catch (SQLException e) {
+            throw new CacheLoaderException(format("Failed to load cache %s", cacheName), e);
+        }
+        long rangeSize = (max - min) / loadCacheThreads + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(loadCacheThreads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (long from = min; from <= max; from += rangeSize) {
+                long rangeStart = from;
+                long rangeEnd = Math.min(from + rangeSize - 1, max);
+                futures.add(executor.submit(() -> scan(rangeStart, rangeEnd, clo)));
+            }
+            long loaded = 0;
+            for (Future<Long> future : futures) {
+                loaded += future.get();
+            }
+            logger.info("loaded {} entries into cache {} in {} ms", loaded, cacheName, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheLoaderException(format("Interrupted loading cache %s", cacheName), e);
+        } catch (ExecutionException e) {
+            throw new CacheLoaderException(format("Failed to load cache %s", cacheName), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long scan(long from, long to, IgniteBiInClosure<Object, Object> clo) throws SQLException {
+        long count = 0;
+        try (Connection conn = pool().getConnection(); PreparedStatement stmt = conn.prepareStatement(SCAN)) {
+            stmt.setString(1, cacheName);
+            stmt.setLong(2, from);
+            stmt.setLong(3, to);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    clo.apply(deserialize(rs.getBytes(1)), deserialize(rs.getBytes(2)));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void write(Entry<? extends Object, ? extends Object> entry) throws CacheWriterException {
+        writeAll(Collections.singletonList(entry));
+    }
+
+    @Override
+    public void writeAll(Collection<Entry<? extends Object, ? extends Object>> entries) throws CacheWriterException {
+        try (Connection conn = pool().getConnection(); PreparedStatement stmt = conn.prepareStatement(MERGE)) {
+            conn.setAutoCommit(false);
+            for (Entry<? extends Object, ? extends Object> entry : entries) {
+                stmt.setString(1, cacheName);
+                stmt.setBytes(2, serialize(entry.getKey()));
+                stmt.setBytes(3, serialize(entry.getValue()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            throw new CacheWriterException(format("Failed to write %d entries to cache %s", entries.size(), cacheName), e);
+        }
+    }
+
+    @Override
+    public void delete(Object key) throws CacheWriterException {
+        deleteAll(Collections.singletonList(key));
+    }
+
+    @Override
+    public void deleteAll(Collection<?> keys) throws CacheWriterException {
+        try (Connection conn = pool().getConnection(); PreparedStatement stmt = conn.prepareStatement(DELETE)) {
+            conn.setAutoCommit(false);
+            for (Object key : keys) {
+                stmt.setString(1, cacheName);
+                stmt.setBytes(2, serialize(key));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            throw new CacheWriterException(format("Failed to delete %d keys from cache %s", keys.size(), cacheName), e);
+        }
+    }
+
+    private byte[] serialize(Object obj) {
+        return SerializationUtils.serialize((Serializable) obj);
+    }
+
+    private Object deserialize(byte[] bytes) {
+        return (bytes == null) ? null : SerializationUtils.deserialize(bytes);
+    }
+
+    // package private for tests
+    void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import javax.cache.configuration.Factory;
+
+/**
+ * Serializable factory shipped to the server nodes with the cache configuration, each node creates
+ * its own {@link H2CacheStore}.
+ */
+public class H2CacheStoreFactory implements Factory<H2CacheStore> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String url;
+    private final int loadCacheThreads;
+
+    public H2CacheStoreFactory(String url, int loadCacheThreads) {
+        this.url = url;
+        this.loadCacheThreads = loadCacheThreads;
+    }
+
+    @Override
+    public H2CacheStore create() {
+        return new H2CacheStore(url, loadCacheThreads);
+    }
+
+}
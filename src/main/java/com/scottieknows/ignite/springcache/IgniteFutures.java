@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.ignite.lang.IgniteFuture;
+
+/**
+ * Bridges {@link IgniteFuture} to {@link CompletableFuture}.  Completion is handed off to an executor
+ * so that dependent stages never run on (and never block) Ignite's internal threads.
+ */
+public class IgniteFutures {
+
+    private IgniteFutures() {}
+
+    public static <V> CompletableFuture<V> toCompletableFuture(IgniteFuture<V> igniteFuture) {
+        return toCompletableFuture(igniteFuture, ForkJoinPool.commonPool());
+    }
+
+    public static <V> CompletableFuture<V> toCompletableFuture(IgniteFuture<V> igniteFuture, Executor executor) {
+        CompletableFuture<V> rtn = new CompletableFuture<>();
+        igniteFuture.listenAsync(f -> {
+            try {
+                rtn.complete(f.get());
+            } catch (Exception e) {
+                rtn.completeExceptionally(e);
+            }
+        }, executor);
+        return rtn;
+    }
+
+}
@@ -1,16 +1,17 @@
 package com.scottieknows.ignite.springcache;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+
+import javax.cache.configuration.Factory;
 
-import org.apache.ignite.Ignite;
 import org.apache.ignite.Ignition;
 import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.eviction.AbstractEvictionPolicy;
 import org.apache.ignite.cache.eviction.EvictionPolicy;
-import org.apache.ignite.cache.eviction.lru.LruEvictionPolicy;
 import org.apache.ignite.cache.spring.SpringCacheManager;
+import org.apache.ignite.cache.store.CacheStore;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.configuration.NearCacheConfiguration;
@@ -19,14 +20,23 @@ import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.TcpDiscoveryIpFinder;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.multicast.TcpDiscoveryMulticastIpFinder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
 
 @EnableCaching
+@EnableConfigurationProperties(CacheTopologyProperties.class)
+@DependsOn("igniteLauncher")
 @SpringBootApplication(scanBasePackages="com.scottieknows.ignite.configuration;com.scottieknows.ignite.springcache")
 public class IgniteSpringCacheApplication {
 
@@ -35,38 +45,99 @@ public class IgniteSpringCacheApplication {
 		SpringApplication.run(IgniteSpringCacheApplication.class, args);
 	}
 
+    /**
+     * Lazy so that it is only created, and waits for the ignite node, on first use.
+     */
     @Bean
+    @Lazy
+    @DependsOn("igniteInstance")
     @Autowired
-    public Ignite ignite(CacheManager cacheManager) {
-        try {
-            Field field = SpringCacheManager.class.getDeclaredField("ignite");
-            field.setAccessible(true);
-            Ignite rtn = (Ignite) field.get(cacheManager);
-            field.setAccessible(false);
-            return rtn;
-        } catch (SecurityException | IllegalAccessException | IllegalArgumentException | NoSuchFieldException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    @Bean
-    @Autowired
-    public CacheManager cacheManager(IgniteConfiguration igniteConfiguration,
-                                     NearCacheConfiguration<Object, Object> nearCacheConfiguration) {
-        SpringCacheManager springCacheManager = new SpringCacheManager();
-        springCacheManager.setConfiguration(igniteConfiguration);
+    public SpringCacheManager igniteCacheManager(IgniteConfiguration igniteConfiguration,
+                                                 CacheTopologyProperties cacheTopologyProperties,
+                                                 NearCacheConfiguration<Object, Object> nearCacheConfiguration,
+                                                 Factory<? extends CacheStore<Object, Object>> cacheStoreFactory,
+                                                 @Value("${cacheStoreEnabled:false}") boolean cacheStoreEnabled,
+                                                 @Value("${cacheReadThrough:true}") boolean cacheReadThrough,
+                                                 @Value("${writeBehindBatchSize:512}") int writeBehindBatchSize,
+                                                 @Value("${writeBehindFlushSize:10240}") int writeBehindFlushSize,
+                                                 @Value("${writeBehindFlushFrequency:5000}") long writeBehindFlushFrequency,
+                                                 @Value("${writeBehindFlushThreadCount:1}") int writeBehindFlushThreadCount) {
+        SpringCacheManager springCacheManager = new TopologySpringCacheManager(cacheTopologyProperties.getCaches());
+        springCacheManager.setIgniteInstanceName(igniteConfiguration.getIgniteInstanceName());
         springCacheManager.setDynamicNearCacheConfiguration(nearCacheConfiguration);
         CacheConfiguration<Object, Object> cacheConfiguration = new CacheConfiguration<>();
         cacheConfiguration.setName("myids");
+        // the default, see CacheTopologyProperties to partition a cache
         cacheConfiguration.setCacheMode(CacheMode.REPLICATED);
+        if (cacheStoreEnabled) {
+            // the store classes must be on the server nodes' classpath, peer class loading does not cover them
+            cacheConfiguration.setCacheStoreFactory(cacheStoreFactory);
+            // misses, including the misses of a getAll, are loaded from the store in one loadAll
+            cacheConfiguration.setReadThrough(cacheReadThrough);
+            cacheConfiguration.setWriteThrough(true);
+            cacheConfiguration.setWriteBehindEnabled(true);
+            // only the latest value per key is kept in the write-behind queue
+            cacheConfiguration.setWriteBehindCoalescing(true);
+            cacheConfiguration.setWriteBehindBatchSize(writeBehindBatchSize);
+            cacheConfiguration.setWriteBehindFlushSize(writeBehindFlushSize);
+            cacheConfiguration.setWriteBehindFlushFrequency(writeBehindFlushFrequency);
+            cacheConfiguration.setWriteBehindFlushThreadCount(writeBehindFlushThreadCount);
+        }
         springCacheManager.setDynamicCacheConfiguration(cacheConfiguration);
         return springCacheManager;
     }
 
+    /**
+     * Backing source for the spring caches when {@code cacheStoreEnabled} is set, define a different
+     * {@code cacheStoreFactory} bean to read and write through to another source of truth.
+     */
+    @Bean
+    public Factory<? extends CacheStore<Object, Object>> cacheStoreFactory(
+            @Value("${cacheStoreUrl:jdbc:h2:file:${java.io.tmpdir}/ignite-cache-store}") String cacheStoreUrl,
+            @Value("${cacheStoreLoadThreads:4}") int cacheStoreLoadThreads) {
+        return new H2CacheStoreFactory(cacheStoreUrl, cacheStoreLoadThreads);
+    }
+
+    @Bean
+    @ConditionalOnProperty("cacheLoadOnStartup")
+    public ApplicationRunner cacheLoader(CachingService cachingService) {
+        return args -> cachingService.loadCache();
+    }
+
+    @Bean
+    @Primary
+    @Autowired
+    public SingleFlightCacheManager cacheManager(@Qualifier("instrumentedCacheManager") CacheManager instrumentedCacheManager,
+                                                 @Value("${singleFlightCaches:ids}") String[] singleFlightCaches) {
+        return new SingleFlightCacheManager(instrumentedCacheManager, new HashSet<>(Arrays.asList(singleFlightCaches)));
+    }
+
+    @Bean
+    @Autowired
+    public InstrumentedCacheManager instrumentedCacheManager(@Lazy @Qualifier("igniteCacheManager") CacheManager igniteCacheManager) {
+        return new InstrumentedCacheManager(igniteCacheManager);
+    }
+
+    /**
+     * Lazy like the cache manager, nothing waits for the ignite node until the first subscription.
+     */
+    @Bean
+    @Autowired
+    public CacheSubscriptions cacheSubscriptions(@Lazy @Qualifier("igniteCacheManager") CacheManager igniteCacheManager,
+                                                 @Value("${cacheSubscriptionBufferSize:256}") int bufferSize,
+                                                 @Value("${cacheSubscriptionTimeInterval:100}") long timeInterval) {
+        return new CacheSubscriptions(igniteCacheManager, bufferSize, timeInterval);
+    }
+
+    /**
+     * Near cache eviction of the caches without their own, see {@link CacheTopologyProperties.NearCache}.
+     */
     @Bean
-    public LruEvictionPolicy<Object, Object> evictionPolicy(@Value("${maxNearSize:10000}") int max) {
-        LruEvictionPolicy<Object, Object> lruEvictionPolicy = new LruEvictionPolicy<>(max);
-        return lruEvictionPolicy;
+    public AbstractEvictionPolicy<Object, Object> evictionPolicy(@Value("${nearEvictionPolicy:LRU}") EvictionPolicyType type,
+                                                                 @Value("${maxNearSize:10000}") int max,
+                                                                 @Value("${maxNearMemorySize:0}") long maxMemorySize,
+                                                                 @Value("${nearEvictionBatchSize:1}") int batchSize) {
+        return type.create(max, maxMemorySize, batchSize);
     }
 
     @Bean
@@ -0,0 +1,281 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CachePeekMode;
+import org.apache.ignite.cache.eviction.EvictionPolicy;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.NearCacheConfiguration;
+import org.springframework.cache.Cache;
+
+/**
+ * Decorates a {@link Cache} with hit/miss counters and latency histograms for get, put and evict.
+ * Recording is done with {@link LongAdder}s and HdrHistogram {@link Recorder}s so it does not
+ * allocate or contend on the request path, only a get with a value loader wraps the loader to tell a
+ * load from a hit.  Near hits are estimated from one in {@value #NEAR_SAMPLE_RATE} lookups, which
+ * peek into the local near cache before the lookup, as a peek copies the value out of the near cache.
+ * Operations on the native cache bypass this decorator and are not counted.
+ */
+public class InstrumentedCache implements Cache {
+
+    public enum Operation { GET, PUT, EVICT }
+
+    private static final CachePeekMode[] NEAR = { CachePeekMode.NEAR };
+    static final int NEAR_SAMPLE_RATE = 16;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Cache delegate;
+    private final IgniteCache<Object, Object> nativeCache;
+    private final CountingEvictionPolicy<?, ?> nearEvictionPolicy;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder sampledHits = new LongAdder();
+    private final LongAdder sampledNearHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+
+    @SuppressWarnings("unchecked")
+    public InstrumentedCache(Cache delegate) {
+        this.delegate = delegate;
+        Object nativeCache = delegate.getNativeCache();
+        this.nativeCache = (nativeCache instanceof IgniteCache) ? (IgniteCache<Object, Object>) nativeCache : null;
+        this.nearEvictionPolicy = nearEvictionPolicy(this.nativeCache);
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Ignite starts the near cache from a copy of the configured {@link NearCacheConfiguration}, so the
+     * eviction policy that is actually in use has to be taken from the started cache.
+     */
+    @SuppressWarnings("unchecked")
+    private static CountingEvictionPolicy<?, ?> nearEvictionPolicy(IgniteCache<Object, Object> nativeCache) {
+        if (nativeCache == null) {
+            return null;
+        }
+        NearCacheConfiguration<Object, Object> nearConfiguration =
+            nativeCache.getConfiguration(CacheConfiguration.class).getNearConfiguration();
+        EvictionPolicy<?, ?> evictionPolicy = (nearConfiguration == null) ? null : nearConfiguration.getNearEvictionPolicy();
+        return (evictionPolicy instanceof CountingEvictionPolicy) ? (CountingEvictionPolicy<?, ?>) evictionPolicy : null;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        boolean sampled = sampleNear();
+        boolean near = sampled && nativeCache.localPeek(key, NEAR) != null;
+        ValueWrapper value = delegate.get(key);
+        record(Operation.GET, start);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hit(sampled, near);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object rtn = (value == null) ? null : value.get();
+        if (rtn != null && type != null && !type.isInstance(rtn)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + rtn);
+        }
+        return (T) rtn;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        boolean sampled = sampleNear();
+        boolean near = sampled && nativeCache.localPeek(key, NEAR) != null;
+        // one lookup, the delegate calls the loader on this thread if the key is not cached
+        CountingLoader<T> loader = new CountingLoader<>(valueLoader);
+        T value = delegate.get(key, loader);
+        record(Operation.GET, start);
+        if (loader.called) {
+            misses.increment();
+        } else {
+            hit(sampled, near);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        delegate.put(key, value);
+        record(Operation.PUT, start);
+        puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        ValueWrapper rtn = delegate.putIfAbsent(key, value);
+        record(Operation.PUT, start);
+        puts.increment();
+        return rtn;
+    }
+
+    @Override
+    public void evict(Object key) {
+        long start = System.nanoTime();
+        delegate.evict(key);
+        record(Operation.EVICT, start);
+        evictions.increment();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    private boolean sampleNear() {
+        return nativeCache != null && ThreadLocalRandom.current().nextInt(NEAR_SAMPLE_RATE) == 0;
+    }
+
+    private void hit(boolean sampled, boolean near) {
+        hits.increment();
+        if (sampled) {
+            sampledHits.increment();
+            if (near) {
+                sampledNearHits.increment();
+            }
+        }
+    }
+
+    private void record(Operation operation, long start) {
+        latencies[operation.ordinal()].recorder.recordValue(Math.min(System.nanoTime() - start, MAX_LATENCY_NANOS));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return hits estimated to be answered by the near cache, from the sampled lookups
+     */
+    public long getNearHitCount() {
+        long sampled = sampledHits.sum();
+        return (sampled == 0) ? 0 : Math.round((double) hits.sum() * sampledNearHits.sum() / sampled);
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getEvictCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return entries held by the near cache, -1 if there is none
+     */
+    public int getNearCacheSize() {
+        return (nearEvictionPolicy == null) ? -1 : nearEvictionPolicy.getCurrentSize();
+    }
+
+    /**
+     * @return entries evicted from the near cache by its eviction policy, -1 if there is none
+     */
+    public long getNearEvictionCount() {
+        return (nearEvictionPolicy == null) ? -1 : nearEvictionPolicy.getEvictionCount();
+    }
+
+    /**
+     * @return latencies of {@code operation} in nanoseconds since startup or the last {@link #resetLatencies()}
+     */
+    public Histogram getLatencies(Operation operation) {
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    public void resetLatencies() {
+        for (LatencyHistogram latency : latencies) {
+            latency.reset();
+        }
+    }
+
+    /**
+     * Tells a load from a hit, without a second lookup.
+     */
+    private static class CountingLoader<T> implements Callable<T> {
+        private final Callable<T> valueLoader;
+        private boolean called;
+
+        CountingLoader(Callable<T> valueLoader) {
+            this.valueLoader = valueLoader;
+        }
+
+        @Override
+        public T call() throws Exception {
+            called = true;
+            return valueLoader.call();
+        }
+    }
+
+    /**
+     * Writers only touch the {@link Recorder}, readers fold its interval histogram into the total.
+     */
+    private static class LatencyHistogram {
+        private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+        private final Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+        private Histogram interval;
+
+        synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return total.copy();
+        }
+
+        synchronized void reset() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.reset();
+        }
+    }
+
+}
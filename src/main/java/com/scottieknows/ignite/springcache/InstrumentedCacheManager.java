@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.scottieknows.ignite.springcache.InstrumentedCache.Operation;
+
+/**
+ * {@link CacheManager} that wraps every cache of its delegate in an {@link InstrumentedCache} and
+ * publishes the results over JMX and the actuator {@code /metrics} endpoint.  Latencies are reported
+ * in microseconds.
+ */
+@ManagedResource(objectName="com.scottieknows.ignite:type=InstrumentedCacheManager")
+public class InstrumentedCacheManager implements CacheManager, PublicMetrics {
+
+    private static final double[] PERCENTILES = { 50, 99, 99.9 };
+    private static final String[] PERCENTILE_NAMES = { "p50", "p99", "p999" };
+
+    private final CacheManager delegate;
+    private final ConcurrentMap<String, InstrumentedCache> caches = new ConcurrentHashMap<>();
+
+    public InstrumentedCacheManager(CacheManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InstrumentedCache cache = caches.get(name);
+        if (cache == null) {
+            Cache delegateCache = delegate.getCache(name);
+            if (delegateCache == null) {
+                return null;
+            }
+            InstrumentedCache newCache = new InstrumentedCache(delegateCache);
+            cache = caches.putIfAbsent(name, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        for (InstrumentedCache cache : caches.values()) {
+            String prefix = "cache." + cache.getName() + ".";
+            metrics.add(new Metric<>(prefix + "hit", cache.getHitCount()));
+            metrics.add(new Metric<>(prefix + "near.hit", cache.getNearHitCount()));
+            metrics.add(new Metric<>(prefix + "miss", cache.getMissCount()));
+            metrics.add(new Metric<>(prefix + "put", cache.getPutCount()));
+            metrics.add(new Metric<>(prefix + "evict", cache.getEvictCount()));
+            metrics.add(new Metric<>(prefix + "hit.ratio", hitRatio(cache)));
+            metrics.add(new Metric<>(prefix + "near.size", cache.getNearCacheSize()));
+            metrics.add(new Metric<>(prefix + "near.evictions", cache.getNearEvictionCount()));
+            for (Operation operation : Operation.values()) {
+                Histogram latencies = cache.getLatencies(operation);
+                String name = prefix + operation.name().toLowerCase() + ".";
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    metrics.add(new Metric<>(name + PERCENTILE_NAMES[i], toMicros(latencies.getValueAtPercentile(PERCENTILES[i]))));
+                }
+                metrics.add(new Metric<>(name + "max", toMicros(latencies.getMaxValue())));
+            }
+        }
+        return metrics;
+    }
+
+    @ManagedOperation(description="lookups that found a value")
+    public long getHitCount(String cacheName) {
+        InstrumentedCache cache = caches.get(cacheName);
+        return (cache == null) ? 0 : cache.getHitCount();
+    }
+
+    @ManagedOperation(description="lookups that found a value in the local near cache")
+    public long getNearHitCount(String cacheName) {
+        InstrumentedCache cache = caches.get(cacheName);
+        return (cache == null) ? 0 : cache.getNearHitCount();
+    }
+
+    @ManagedOperation(description="lookups that did not find a value")
+    public long getMissCount(String cacheName) {
+        InstrumentedCache cache = caches.get(cacheName);
+        return (cache == null) ? 0 : cache.getMissCount();
+    }
+
+    @ManagedOperation(description="hits / (hits + misses)")
+    public double getHitRatio(String cacheName) {
+        InstrumentedCache cache = caches.get(cacheName);
+        return (cache == null) ? 0 : hitRatio(cache);
+    }
+
+    @ManagedOperation(description="latency in microseconds of GET, PUT or EVICT at the given percentile")
+    public double getLatencyPercentile(String cacheName, String operation, double percentile) {
+        InstrumentedCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return 0;
+        }
+        Histogram latencies = cache.getLatencies(Operation.valueOf(operation.toUpperCase()));
+        return toMicros(latencies.getValueAtPercentile(percentile));
+    }
+
+    @ManagedOperation(description="clears the latency histograms of all caches")
+    public void resetLatencies() {
+        caches.values().forEach(InstrumentedCache::resetLatencies);
+    }
+
+    @ManagedOperation(description="entries held by the near cache on this node")
+    public int getNearCacheSize(String cacheName) {
+        InstrumentedCache cache = caches.get(cacheName);
+        return (cache == null) ? -1 : cache.getNearCacheSize();
+    }
+
+    @ManagedOperation(description="entries evicted from the near cache on this node")
+    public long getNearEvictionCount(String cacheName) {
+        InstrumentedCache cache = caches.get(cacheName);
+        return (cache == null) ? -1 : cache.getNearEvictionCount();
+    }
+
+    private static double hitRatio(InstrumentedCache cache) {
+        long hits = cache.getHitCount();
+        long total = hits + cache.getMissCount();
+        return (total == 0) ? 0 : (double) hits / total;
+    }
+
+    private static double toMicros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+}
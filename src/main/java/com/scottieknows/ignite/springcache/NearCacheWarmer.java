@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import static java.lang.String.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preloads the near cache of the "ids" cache before the application starts serving requests.  Spring
+ * boot starts the embedded servlet container only after the lifecycle beans have started, so traffic
+ * is not accepted until the warm-up completes.
+ * <p>
+ * Keys come from {@code nearCacheWarmupKeys} and from the snapshot file written by the previous
+ * instance on shutdown ({@code nearCacheSnapshotFile}), and are fetched in parallel batches.
+ */
+@Component
+@ManagedResource(objectName="com.scottieknows.ignite:type=NearCacheWarmer")
+public class NearCacheWarmer implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheWarmer.class);
+
+    @Autowired
+    private CachingService cachingService;
+    @Value("${nearCacheWarmupKeys:}")
+    private String warmupKeys;
+    @Value("${nearCacheSnapshotFile:}")
+    private String snapshotFile;
+    @Value("${nearCacheWarmupBatchSize:500}")
+    private int batchSize;
+    @Value("${nearCacheWarmupThreads:4}")
+    private int threads;
+
+    private volatile boolean running;
+    private volatile long warmupMillis;
+    private volatile long requestedKeys;
+    private volatile long loadedKeys;
+
+    @Override
+    public void start() {
+        running = true;
+        Set<Integer> keys = getWarmupKeys();
+        if (keys.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<List<Integer>> batches = partition(new ArrayList<>(keys), batchSize);
+        LongAdder loaded = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CompletableFuture.allOf(batches.stream()
+                .map(batch -> CompletableFuture.runAsync(() -> loaded.add(cachingService.getAll(batch).size()), executor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+        } catch (RuntimeException e) {
+            // a partial warm-up only costs remote lookups later, it must not prevent startup
+            logger.error("near cache warm-up failed: {}", e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+        warmupMillis = System.currentTimeMillis() - start;
+        requestedKeys = keys.size();
+        loadedKeys = loaded.sum();
+        logger.info("near cache warm-up loaded {} of {} keys in {} ms", loadedKeys, requestedKeys, warmupMillis);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (StringUtils.isEmpty(snapshotFile)) {
+            return;
+        }
+        try {
+            List<String> lines = cachingService.nearCacheKeys().stream()
+                .map(String::valueOf)
+                .collect(Collectors.toList());
+            Files.write(Paths.get(snapshotFile), lines);
+            logger.info("wrote {} near cache keys to {}", lines.size(), snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            logger.error("could not write near cache snapshot to {}: {}", snapshotFile, e.getMessage(), e);
+        }
+    }
+
+    private Set<Integer> getWarmupKeys() {
+        Set<Integer> rtn = new LinkedHashSet<>();
+        for (String key : StringUtils.split(warmupKeys, ',')) {
+            addKey(rtn, key, "nearCacheWarmupKeys");
+        }
+        if (StringUtils.isEmpty(snapshotFile)) {
+            return rtn;
+        }
+        Path path = Paths.get(snapshotFile);
+        if (!Files.exists(path)) {
+            return rtn;
+        }
+        try {
+            Files.readAllLines(path).stream()
+                .filter(StringUtils::isNotBlank)
+                .forEach(line -> addKey(rtn, line, snapshotFile));
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to read near cache snapshot %s", snapshotFile), e);
+        }
+        return rtn;
+    }
+
+    /**
+     * A key that is not an id is skipped, a bad entry must not prevent startup.
+     */
+    private static void addKey(Set<Integer> keys, String key, String source) {
+        try {
+            keys.add(Integer.valueOf(key.trim()));
+        } catch (NumberFormatException e) {
+            logger.warn("skipping near cache warm-up key '{}' from {}, it is not an id", key, source);
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> list, int size) {
+        List<List<T>> rtn = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            rtn.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return rtn;
+    }
+
+    @ManagedAttribute(description="duration of the startup warm-up in milliseconds")
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    @ManagedAttribute(description="number of keys the warm-up requested")
+    public long getWarmupRequestedKeys() {
+        return requestedKeys;
+    }
+
+    @ManagedAttribute(description="fraction of requested keys that were found and preloaded")
+    public double getWarmupHitRatio() {
+        return (requestedKeys == 0) ? 0 : (double) loadedKeys / requestedKeys;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+}
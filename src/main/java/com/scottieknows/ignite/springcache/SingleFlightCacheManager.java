@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * {@link CacheManager} that wraps the configured caches of its delegate in a {@link SingleFlightCache}.
+ * Caches that are not configured for single-flight are returned as is.
+ */
+@ManagedResource(objectName="com.scottieknows.ignite:type=SingleFlightCacheManager")
+public class SingleFlightCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Set<String> singleFlightCacheNames;
+    private final ConcurrentMap<String, SingleFlightCache> caches = new ConcurrentHashMap<>();
+
+    public SingleFlightCacheManager(CacheManager delegate, Set<String> singleFlightCacheNames) {
+        this.delegate = delegate;
+        this.singleFlightCacheNames = singleFlightCacheNames;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!singleFlightCacheNames.contains(name)) {
+            return delegate.getCache(name);
+        }
+        SingleFlightCache cache = caches.get(name);
+        if (cache == null) {
+            Cache delegateCache = delegate.getCache(name);
+            if (delegateCache == null) {
+                return null;
+            }
+            SingleFlightCache newCache = new SingleFlightCache(delegateCache);
+            cache = caches.putIfAbsent(name, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @ManagedOperation(description="lookups executed against the underlying cache")
+    public long getLoadCount(String cacheName) {
+        SingleFlightCache cache = caches.get(cacheName);
+        return (cache == null) ? 0 : cache.getLoadCount();
+    }
+
+    @ManagedOperation(description="lookups answered by joining a load already in flight")
+    public long getCoalescedCount(String cacheName) {
+        SingleFlightCache cache = caches.get(cacheName);
+        return (cache == null) ? 0 : cache.getCoalescedCount();
+    }
+
+}
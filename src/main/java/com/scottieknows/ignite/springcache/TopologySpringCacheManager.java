@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.spring.SpringCacheManager;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.NearCacheConfiguration;
+import org.springframework.cache.Cache;
+
+import com.scottieknows.ignite.springcache.CacheTopologyProperties.CacheTopology;
+
+/**
+ * Starts the caches that have a {@link CacheTopology} with it, on top of the dynamic cache and near
+ * cache configurations, before {@link SpringCacheManager} looks them up.  Every other cache is
+ * created from the dynamic cache configuration as is.
+ */
+public class TopologySpringCacheManager extends SpringCacheManager {
+
+    private final Map<String, CacheTopology> topologies;
+    private final ConcurrentMap<String, CompletableFuture<Void>> started = new ConcurrentHashMap<>();
+
+    public TopologySpringCacheManager(Map<String, CacheTopology> topologies) {
+        this.topologies = topologies;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        CacheTopology topology = topologies.get(name);
+        if (topology != null) {
+            awaitStart(name, topology);
+        }
+        return super.getCache(name);
+    }
+
+    /**
+     * The first lookup of a name starts the cache, concurrent first lookups wait for it.  The start
+     * waits on a partition map exchange, so it runs outside the map and lookups of other names go on.
+     * A failed start is forgotten and the next lookup tries again.
+     */
+    private void awaitStart(String name, CacheTopology topology) {
+        CompletableFuture<Void> start = new CompletableFuture<>();
+        CompletableFuture<Void> existing = started.putIfAbsent(name, start);
+        if (existing != null) {
+            try {
+                existing.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+            }
+            return;
+        }
+        try {
+            startCache(name, topology);
+            start.complete(null);
+        } catch (RuntimeException e) {
+            started.remove(name, start);
+            start.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void startCache(String name, CacheTopology topology) {
+        CacheConfiguration<Object, Object> dynamicCacheConfiguration = getDynamicCacheConfiguration();
+        CacheConfiguration<Object, Object> cacheConfiguration = (dynamicCacheConfiguration == null)
+            ? new CacheConfiguration<>() : new CacheConfiguration<>(dynamicCacheConfiguration);
+        cacheConfiguration.setName(name);
+        topology.applyTo(cacheConfiguration);
+        Ignite ignite = Ignition.ignite(getIgniteInstanceName());
+        NearCacheConfiguration<Object, Object> nearCacheConfiguration = getDynamicNearCacheConfiguration();
+        if (nearCacheConfiguration != null && topology.getNear() != null) {
+            nearCacheConfiguration = topology.getNear().toNearCacheConfiguration(nearCacheConfiguration);
+        }
+        if (nearCacheConfiguration == null) {
+            ignite.getOrCreateCache(cacheConfiguration);
+        } else {
+            ignite.getOrCreateCache(cacheConfiguration, nearCacheConfiguration);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
+
+/**
+ * {@link ExpiryPolicy} with separate time to live after an entry is created, read and updated, in
+ * milliseconds.  0 leaves the expiry of an entry as it is on reads and updates, and never expires a
+ * created entry.  The JSR 107 policies only have one of them each.  The cache configuration carries it
+ * to the server nodes, so like the store classes it has to be on their classpath.
+ */
+public class TtlExpiryPolicy implements ExpiryPolicy, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration created;
+    private final Duration accessed;
+    private final Duration modified;
+
+    public TtlExpiryPolicy(long createdTtl, long accessedTtl, long modifiedTtl) {
+        this.created = (createdTtl > 0) ? new Duration(TimeUnit.MILLISECONDS, createdTtl) : Duration.ETERNAL;
+        this.accessed = duration(accessedTtl);
+        this.modified = duration(modifiedTtl);
+    }
+
+    private static Duration duration(long ttl) {
+        return (ttl > 0) ? new Duration(TimeUnit.MILLISECONDS, ttl) : null;
+    }
+
+    @Override
+    public Duration getExpiryForCreation() {
+        return created;
+    }
+
+    @Override
+    public Duration getExpiryForAccess() {
+        return accessed;
+    }
+
+    @Override
+    public Duration getExpiryForUpdate() {
+        return modified;
+    }
+
+}
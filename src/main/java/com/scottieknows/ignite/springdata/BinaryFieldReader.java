@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.binary.BinaryObject;
+
+/**
+ * Reads single fields of cached values without deserializing them, the values stay in their binary
+ * form and only the requested field is read.
+ */
+public class BinaryFieldReader<K> {
+
+    private final IgniteCache<K, BinaryObject> cache;
+
+    public BinaryFieldReader(IgniteCache<K, ?> cache) {
+        this.cache = cache.withKeepBinary();
+    }
+
+    /**
+     * @return the field of the value cached for the key, null if there is none
+     */
+    public <F> F read(K key, String fieldName) {
+        BinaryObject value = cache.get(key);
+        return (value == null) ? null : value.field(fieldName);
+    }
+
+    /**
+     * @return the field by key, for the keys that have a value
+     */
+    public <F> Map<K, F> readAll(Set<? extends K> keys, String fieldName) {
+        Map<K, BinaryObject> values = cache.getAll(keys);
+        Map<K, F> fields = new HashMap<>(values.size());
+        values.forEach((key, value) -> fields.put(key, value.field(fieldName)));
+        return fields;
+    }
+
+}
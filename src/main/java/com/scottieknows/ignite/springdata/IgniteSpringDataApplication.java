@@ -21,16 +21,21 @@
  */
 package com.scottieknows.ignite.springdata;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.Map;
 
 import javax.cache.Cache;
 
 import org.apache.ignite.Ignite;
 import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.affinity.AffinityKey;
 import org.apache.ignite.configuration.CacheConfiguration;
-import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.events.EventType;
 import org.apache.ignite.internal.util.IgniteUtils;
 import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
@@ -43,48 +48,102 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
 
 import com.scottieknows.ignite.springcache.IgniteSpringCacheApplication;
 
 @EnableIgniteRepositories
+@DependsOn("igniteLauncher")
 @SpringBootApplication(scanBasePackages="com.scottieknows.ignite.configuration")
 public class IgniteSpringDataApplication {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Ignition.setClientMode(true);
         IgniteUtils.setIgniteHome(System.getProperty("java.io.tmpdir"));
         ConfigurableApplicationContext ctx = SpringApplication.run(IgniteSpringDataApplication.class, args);
         PersonRepository repo = ctx.getBean(PersonRepository.class);
-        TreeMap<Long, Person> persons = new TreeMap<>();
+        OrganizationRepository orgRepo = ctx.getBean(OrganizationRepository.class);
+        orgRepo.save(1000L, new Organization(1000L, "Sun"));
+        orgRepo.save(2000L, new Organization(2000L, "Oracle"));
 
-        persons.put(1L, new Person(1L, 2000L, "John", "Smith", 15000, "Worked for Apple"));
-        persons.put(2L, new Person(2L, 2000L, "Brad", "Pitt", 16000, "Worked for Oracle"));
-        persons.put(3L, new Person(3L, 1000L, "Mark", "Tomson", 10000, "Worked for Sun"));
+        Map<AffinityKey<Long>, Person> persons = new LinkedHashMap<>();
+        for (Person person : Arrays.asList(new Person(1L, 2000L, "John", "Smith", 15000, "Worked for Apple"),
+                                           new Person(2L, 2000L, "Brad", "Pitt", 16000, "Worked for Oracle"),
+                                           new Person(3L, 1000L, "Mark", "Tomson", 10000, "Worked for Sun"))) {
+            persons.put(person.key(), person);
+        }
 
-        // Adding data into the repository.
+        // Adding data into the repository, each person on the node of its organization.
         repo.save(persons);
 
+        // Bulk loading a .csv or .ndjson file of persons.
+        if (args.length > 0 && !args[0].startsWith("--")) {
+            PersonIngester personIngester = ctx.getBean(PersonIngester.class);
+            Path file = Paths.get(args[0]);
+            long loaded = file.toString().endsWith(".csv") ? personIngester.ingestCsv(file) : personIngester.ingestNdjson(file);
+            System.out.println("\n>>> Loaded " + loaded + " persons from " + file);
+        }
+
         List<Person> peeps = repo.findByFirstName("John");
 
         for (Person person : peeps) {
             System.out.println("   >>>   " + person);
         }
 
-        Cache.Entry<Long, Person> topPerson = repo.findTopByLastNameLike("Smith");
+        Cache.Entry<AffinityKey<Long>, Person> topPerson = repo.findTopByLastNameStartingWith("Smith");
 
         System.out.println("\n>>> Top Person with surname 'Smith': " + topPerson.getValue());
+
+        for (List<?> employee : repo.findEmployeesCollocated(2000L)) {
+            System.out.println("\n>>> Employee of organization 2000: " + employee);
+        }
+
+        @SuppressWarnings("unchecked")
+        BinaryFieldReader<AffinityKey<Long>> personFieldReader = ctx.getBean("personFieldReader", BinaryFieldReader.class);
+        Double salary = personFieldReader.read(new AffinityKey<>(1L, 2000L), "salary");
+        System.out.println("\n>>> Salary of person 1, read without deserializing it: " + salary);
         ctx.close();
     }
 
     @Bean
-    @Autowired
-    public Ignite igniteInstance(IgniteConfiguration igniteConfiguration) {
+    public CacheConfiguration<AffinityKey<Long>, Person> personCacheConfiguration() {
         // Defining and creating a new cache to be used by Ignite Spring Data repository.
-        CacheConfiguration ccfg = new CacheConfiguration("PersonCache");
-        // Setting SQL schema for the cache.
-        ccfg.setIndexedTypes(Long.class, Person.class);
-        igniteConfiguration.setCacheConfiguration(ccfg);
-        return Ignition.start(igniteConfiguration);
+        CacheConfiguration<AffinityKey<Long>, Person> ccfg = new CacheConfiguration<>("PersonCache");
+        // Setting SQL schema for the cache, persons are keyed by Person.key() to be collocated with
+        // their organization.
+        ccfg.setIndexedTypes(AffinityKey.class, Person.class);
+        return QueryEntities.applyGroupIndexInlineSizes(ccfg);
+    }
+
+    @Bean
+    public CacheConfiguration<Long, Organization> organizationCacheConfiguration() {
+        // Partitioned like PersonCache with the same affinity function, an organization and its
+        // persons map to the same partition.
+        CacheConfiguration<Long, Organization> ccfg = new CacheConfiguration<>("OrganizationCache");
+        ccfg.setIndexedTypes(Long.class, Organization.class);
+        return ccfg;
+    }
+
+    @Bean
+    @Lazy
+    @Autowired
+    public BinaryFieldReader<AffinityKey<Long>> personFieldReader(Ignite igniteInstance) {
+        return new BinaryFieldReader<>(igniteInstance.cache("PersonCache"));
+    }
+
+    @Bean
+    @Lazy
+    @Autowired
+    public PersonIngester personIngester(Ignite igniteInstance,
+                                         @Value("${ingestPerNodeBufferSize:512}") int perNodeBufferSize,
+                                         @Value("${ingestPerNodeParallelOperations:16}") int perNodeParallelOperations,
+                                         @Value("${ingestAllowOverwrite:false}") boolean allowOverwrite,
+                                         @Value("${ingestProgressInterval:1000000}") long progressInterval) {
+        PersonIngester personIngester = new PersonIngester(igniteInstance, "PersonCache", perNodeBufferSize,
+                                                           perNodeParallelOperations, allowOverwrite);
+        personIngester.setProgressInterval(progressInterval);
+        return personIngester;
     }
 
 }
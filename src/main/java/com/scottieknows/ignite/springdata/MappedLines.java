@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The lines of a utf-8 file, read through a memory mapping of up to {@code regionSize} bytes at a time
+ * instead of through a buffered reader.  A line that runs past the end of a region is read again from
+ * the next region, so no line may be longer than a region.  Line endings are {@code \n} or
+ * {@code \r\n}, a trailing empty line is dropped.
+ */
+public class MappedLines implements Iterator<String>, AutoCloseable {
+
+    private static final long DEFAULT_REGION_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long regionSize;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private String next;
+
+    public MappedLines(Path file) throws IOException {
+        this(file, DEFAULT_REGION_SIZE);
+    }
+
+    // package private for tests
+    MappedLines(Path file, long regionSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.regionSize = regionSize;
+        map(0);
+        next = readLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        String line = next;
+        next = readLine();
+        return line;
+    }
+
+    /**
+     * The mappings are released when they are garbage collected, closing only closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String readLine() {
+        while (true) {
+            int start = region.position();
+            int limit = region.limit();
+            for (int i = start; i < limit; i++) {
+                if (region.get(i) == '\n') {
+                    region.position(i + 1);
+                    return decode(start, (i > start && region.get(i - 1) == '\r') ? i - 1 : i);
+                }
+            }
+            long lineStart = regionStart + start;
+            if (regionStart + limit >= size) {
+                region.position(limit);
+                return (start == limit) ? null : decode(start, limit);
+            }
+            if (start == 0) {
+                throw new IllegalStateException("line at offset " + lineStart + " is longer than " + regionSize + " bytes");
+            }
+            map(lineStart);
+        }
+    }
+
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer line = region.duplicate();
+        line.position(start);
+        line.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void map(long start) {
+        try {
+            region = channel.map(MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+            regionStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -23,27 +23,32 @@ package com.scottieknows.ignite.springdata;
 
 import java.io.Serializable;
 
+import org.apache.ignite.cache.affinity.AffinityKey;
 import org.apache.ignite.cache.query.annotations.QuerySqlField;
 import org.apache.ignite.cache.query.annotations.QueryTextField;
 
 //@Entity
 //@Table(name="person")
+@GroupIndexInlineSize(index = Person.ORG_ID_IDX, size = 18)
 public class Person implements Serializable {
 
+    /** Organization ID then person ID, for the queries scoped to an organization. */
+    static final String ORG_ID_IDX = "person_org_id_idx";
+
 //    @Id
-    @QuerySqlField(index = true)
+    @QuerySqlField(index = true, orderedGroups = {@QuerySqlField.Group(name = ORG_ID_IDX, order = 1)})
     public Long id;
 
-    /** Organization ID (indexed). */
-    @QuerySqlField(index = true)
+    /** Organization ID (indexed, first column of the organization index). */
+    @QuerySqlField(orderedGroups = {@QuerySqlField.Group(name = ORG_ID_IDX, order = 0)})
     public Long orgId;
 
-    /** First name (not-indexed). */
-    @QuerySqlField
+    /** First name (indexed, names of up to 21 utf-8 bytes are compared in the index pages). */
+    @QuerySqlField(index = true, inlineSize = 24)
     public String firstName;
 
-    /** Last name (not indexed). */
-    @QuerySqlField
+    /** Last name (indexed, names of up to 21 utf-8 bytes are compared in the index pages). */
+    @QuerySqlField(index = true, inlineSize = 24)
     public String lastName;
 
     /** Resume text (create LUCENE-based TEXT index for this field). */
@@ -57,9 +62,8 @@ public class Person implements Serializable {
     /**
      * Custom cache key to guarantee that person is always collocated with its
      * organization.
-    @Transient
-    private transient AffinityKey<Long> key;
      */
+    private transient AffinityKey<Long> key;
 
     /**
      * * Default constructor.
@@ -94,18 +98,18 @@ public class Person implements Serializable {
     }
 
     /**
-     * Gets cache affinity key. Since in some examples person needs to be
-     * collocated with organization, we create * custom affinity key to
-     * guarantee this collocation. * * @return Custom affinity key to guarantee
-     * that person is always collocated with organization.
-    @Transient
+     * Gets cache affinity key. Since person needs to be collocated with its
+     * organization, we create a custom affinity key to guarantee this
+     * collocation.
+     * @return Custom affinity key to guarantee that person is always
+     * collocated with organization.
+     */
     public AffinityKey<Long> key() {
-        if (key == null)
+        if (key == null) {
             key = new AffinityKey<>(id, orgId);
-
+        }
         return key;
     }
-     */
 
     public Long getId() {
         return id;
@@ -133,10 +137,12 @@ public class Person implements Serializable {
 
     public void setId(Long id) {
         this.id = id;
+        this.key = null;
     }
 
     public void setOrgId(Long orgId) {
         this.orgId = orgId;
+        this.key = null;
     }
 
     public void setFirstName(String firstName) {
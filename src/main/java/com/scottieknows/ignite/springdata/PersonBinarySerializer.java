@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import org.apache.ignite.binary.BinaryObjectException;
+import org.apache.ignite.binary.BinaryReader;
+import org.apache.ignite.binary.BinarySerializer;
+import org.apache.ignite.binary.BinaryWriter;
+
+/**
+ * Writes {@link Person} field by field instead of through reflection.  The fields keep their names
+ * and types, the sql indexes and queries read them from the binary form.  Registered on every node
+ * by {@link com.scottieknows.ignite.configuration.IgniteConfig#binaryConfiguration(boolean)}, the
+ * class has to be on the server nodes' classpath, peer class loading does not cover it.
+ */
+public class PersonBinarySerializer implements BinarySerializer {
+
+    @Override
+    public void writeBinary(Object obj, BinaryWriter writer) throws BinaryObjectException {
+        Person person = (Person) obj;
+        writer.writeObject("id", person.id);
+        writer.writeObject("orgId", person.orgId);
+        writer.writeString("firstName", person.firstName);
+        writer.writeString("lastName", person.lastName);
+        writer.writeString("resume", person.resume);
+        writer.writeDouble("salary", person.salary);
+    }
+
+    @Override
+    public void readBinary(Object obj, BinaryReader reader) throws BinaryObjectException {
+        Person person = (Person) obj;
+        person.id = reader.readObject("id");
+        person.orgId = reader.readObject("orgId");
+        person.firstName = reader.readString("firstName");
+        person.lastName = reader.readString("lastName");
+        person.resume = reader.readString("resume");
+        person.salary = reader.readDouble("salary");
+    }
+
+}
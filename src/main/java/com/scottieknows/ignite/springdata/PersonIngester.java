@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.cache.affinity.AffinityKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk loads persons into a cache through an {@link IgniteDataStreamer}, which batches the entries
+ * per node instead of putting them in per batch round trips like {@link PersonRepository#save(java.util.Map)}.
+ * <p>
+ * The source is pulled one person at a time and the streamer blocks it once
+ * {@code perNodeParallelOperations} batches are in flight to a node, so a load never holds more than
+ * {@code perNodeBufferSize * perNodeParallelOperations} persons per node in memory, whatever the size of
+ * the source.  Without {@code allowOverwrite} persons that are already cached are skipped, which is the
+ * fast path for loading into an empty cache.  Progress is logged, and passed to the progress listener,
+ * every {@code progressInterval} persons.
+ */
+public class PersonIngester {
+    private static final Logger logger = LoggerFactory.getLogger(PersonIngester.class);
+
+    private static final String CSV_HEADER = "id,";
+
+    private final Ignite ignite;
+    private final String cacheName;
+    private final int perNodeBufferSize;
+    private final int perNodeParallelOperations;
+    private final boolean allowOverwrite;
+    private final ObjectReader personReader = new ObjectMapper().readerFor(Person.class);
+    private long progressInterval = 1000000;
+    private LongConsumer progressListener = persons -> {};
+
+    public PersonIngester(Ignite ignite, String cacheName, int perNodeBufferSize, int perNodeParallelOperations,
+                          boolean allowOverwrite) {
+        this.ignite = ignite;
+        this.cacheName = cacheName;
+        this.perNodeBufferSize = perNodeBufferSize;
+        this.perNodeParallelOperations = perNodeParallelOperations;
+        this.allowOverwrite = allowOverwrite;
+    }
+
+    /**
+     * @return the number of persons streamed, they are all in the cache when this returns
+     */
+    public long ingest(Stream<Person> persons) {
+        return ingest(persons.iterator());
+    }
+
+    /**
+     * @return the number of persons streamed, they are all in the cache when this returns
+     */
+    public long ingest(Iterator<Person> persons) {
+        long start = System.currentTimeMillis();
+        long streamed = 0;
+        try (IgniteDataStreamer<AffinityKey<Long>, Person> streamer = ignite.dataStreamer(cacheName)) {
+            streamer.perNodeBufferSize(perNodeBufferSize);
+            streamer.perNodeParallelOperations(perNodeParallelOperations);
+            streamer.allowOverwrite(allowOverwrite);
+            while (persons.hasNext()) {
+                Person person = persons.next();
+                streamer.addData(person.key(), person);
+                if (++streamed % progressInterval == 0) {
+                    progress(streamed, start);
+                }
+            }
+        }
+        progress(streamed, start);
+        return streamed;
+    }
+
+    /**
+     * Columns are {@code id,orgId,firstName,lastName,salary,resume}, a first line starting with
+     * {@code id,} is a header.  Fields may be quoted with {@code "}, a quote inside a quoted field is
+     * written twice, fields cannot span lines.  Blank lines are skipped.
+     */
+    public long ingestCsv(Path file) throws IOException {
+        try (MappedLines lines = new MappedLines(file)) {
+            if (!lines.hasNext()) {
+                return 0;
+            }
+            String first = lines.next();
+            return ingest(new ParsingIterator(first.startsWith(CSV_HEADER) ? null : first, lines, PersonIngester::parseCsv));
+        }
+    }
+
+    /**
+     * One json object per line with the fields of {@link Person}, blank lines are skipped.
+     */
+    public long ingestNdjson(Path file) throws IOException {
+        try (MappedLines lines = new MappedLines(file)) {
+            return ingest(new ParsingIterator(null, lines, this::parseJson));
+        }
+    }
+
+    public void setProgressInterval(long progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * @param progressListener called with the number of persons streamed so far
+     */
+    public void setProgressListener(LongConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    private void progress(long streamed, long start) {
+        long millis = Math.max(1, System.currentTimeMillis() - start);
+        logger.info("streamed {} persons into {}, {} persons/s", streamed, cacheName, streamed * 1000 / millis);
+        progressListener.accept(streamed);
+    }
+
+    private Person parseJson(String line) {
+        try {
+            return personReader.readValue(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException("invalid person " + line, e);
+        }
+    }
+
+    // package private for tests
+    static Person parseCsv(String line) {
+        List<String> fields = new ArrayList<>(6);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append(c);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        if (fields.size() != 6) {
+            throw new IllegalArgumentException("expected 6 fields in " + line);
+        }
+        return new Person(Long.valueOf(fields.get(0)), fields.get(1).isEmpty() ? null : Long.valueOf(fields.get(1)),
+                          fields.get(2), fields.get(3), Double.parseDouble(fields.get(4)), fields.get(5));
+    }
+
+    /**
+     * Skips blank lines, a stray empty line must not stop a load half way.
+     */
+    // package private for tests
+    static class ParsingIterator implements Iterator<Person> {
+        private final Iterator<String> lines;
+        private final Function<String, Person> parser;
+        private String next;
+
+        /**
+         * @param first a line that was already read, or null
+         */
+        ParsingIterator(String first, Iterator<String> lines, Function<String, Person> parser) {
+            this.lines = lines;
+            this.parser = parser;
+            this.next = (first == null || first.trim().isEmpty()) ? nextLine() : first;
+        }
+
+        private String nextLine() {
+            while (lines.hasNext()) {
+                String line = lines.next();
+                if (!line.trim().isEmpty()) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Person next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String line = next;
+            next = nextLine();
+            return parser.apply(line);
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ import java.util.Map;
 
 import javax.cache.Cache.Entry;
 
+import org.apache.ignite.cache.affinity.AffinityKey;
 import org.apache.ignite.springdata.repository.IgniteRepository;
 import org.apache.ignite.springdata.repository.config.Query;
 import org.apache.ignite.springdata.repository.config.RepositoryConfig;
@@ -34,7 +35,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 
 @RepositoryConfig(cacheName = "PersonCache")
-public interface PersonRepository extends IgniteRepository<Person, Long> {
+public interface PersonRepository extends IgniteRepository<Person, AffinityKey<Long>>, PersonRepositoryCustom {
     /**
      * Gets all the persons with the given name.
      * @param name Person name.
@@ -47,7 +48,16 @@ public interface PersonRepository extends IgniteRepository<Person, Long> {
      * @param name Person surname. 
      * @return Person that satisfy the query.
      */
-    public Entry<Long, Person> findTopByLastNameLike(String name);
+    public Entry<AffinityKey<Long>, Person> findTopByLastNameLike(String name);
+
+    /**
+     * Returns top Person whose surname starts with the given prefix, unlike
+     * {@link #findTopByLastNameLike(String)}, which matches anywhere in the surname and scans every
+     * person, this is a range of the lastName index.
+     * @param prefix Person surname prefix.
+     * @return Person that satisfy the query.
+     */
+    public Entry<AffinityKey<Long>, Person> findTopByLastNameStartingWith(String prefix);
 
     /**
      * Getting ids of all the Person satisfying the custom query from {@link Query} annotation. 
@@ -58,4 +68,16 @@ public interface PersonRepository extends IgniteRepository<Person, Long> {
     @Query("SELECT id FROM Person WHERE orgId > ?")
     public List<Long> selectId(long orgId, Pageable pageable);
 
+    /**
+     * Keyset paginated {@link #selectId(long, Pageable)}, a page starts after the last id of the
+     * previous one instead of skipping the rows of all the previous pages.  {@code orgId + 0} keeps
+     * h2 off the orgId index, so that it walks the id index in order and stops after a page.
+     * @param orgId Query parameter.
+     * @param afterId Last id of the previous page, -1 for the first page.
+     * @param pageSize Maximum number of ids.
+     * @return A page of Persons' ids, in id order.
+     */
+    @Query("SELECT id FROM Person WHERE orgId + 0 > ? AND id > ? ORDER BY id LIMIT ?")
+    public List<Long> selectIdAfter(long orgId, long afterId, int pageSize);
+
 }
\ No newline at end of file
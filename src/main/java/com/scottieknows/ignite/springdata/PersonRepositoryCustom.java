@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Queries scoped to one organization.  The persons of an organization are keyed by
+ * {@link Person#key()} and stored with the organization, so these run on the one node that owns
+ * the organization as local sql instead of fanning out to every node.
+ */
+public interface PersonRepositoryCustom {
+    /**
+     * @param orgId Organization ID.
+     * @return The persons of the organization.
+     */
+    public List<Person> findByOrgIdCollocated(long orgId);
+
+    /**
+     * Joins the persons with their organization without distributed joins.
+     * @param orgId Organization ID.
+     * @return Rows of organization name, first name, last name and salary.
+     */
+    public List<List<?>> findEmployeesCollocated(long orgId);
+
+    /**
+     * Keyset pagination over the persons of an organization.
+     * @param orgId Organization ID.
+     * @param afterId Last id of the previous page, -1 for the first page.
+     * @param pageSize Maximum number of persons.
+     * @return A page of persons, in id order.
+     */
+    public List<Person> findByOrgIdAfter(long orgId, long afterId, int pageSize);
+
+    /**
+     * Streaming {@link PersonRepository#findByFirstName(String)}, the persons are fetched
+     * {@code pageSize} at a time as the stream is consumed.  Close the stream to release the query
+     * cursor.  {@link org.apache.ignite.cache.query.SqlQuery} has no lazy mode in 2.3, so each node
+     * still builds its whole result set before the first page is sent.
+     * @param name Person name.
+     * @param pageSize Persons fetched per round trip.
+     * @return The persons with the given first name.
+     */
+    public Stream<Person> streamByFirstName(String name, int pageSize);
+
+    /**
+     * Streaming {@link PersonRepository#selectId(long, org.springframework.data.domain.Pageable)}
+     * without paging, see {@link #streamByFirstName(String, int)}.  The query runs lazily, the nodes
+     * read the next rows only as pages are requested instead of holding the whole result set.
+     * @param orgId Query parameter.
+     * @param pageSize Ids fetched per round trip.
+     * @return The Persons' ids.
+     */
+    public Stream<Long> streamId(long orgId, int pageSize);
+
+    /**
+     * Full text search of the resumes through their lucene index, every node searches its own
+     * persons at the same time and the matches are fetched {@code pageSize} at a time as the stream is
+     * consumed.  Close the stream to release the query cursor.
+     * @param text Lucene query, e.g. {@code java AND oracle}.
+     * @param pageSize Persons fetched per round trip.
+     * @param limit Maximum number of persons.
+     * @return The persons whose resume matches.
+     */
+    public Stream<Person> searchResume(String text, int pageSize, int limit);
+
+    /**
+     * {@link #searchResume(String, int, int)} of the persons that also match the sql fields given,
+     * null fields match every person.  With an {@code orgId} the search runs on the node that owns the
+     * organization and up to {@code limit} matches come back in one response, the stream is not backed
+     * by a cursor and {@code pageSize} only pages the search on that node.
+     * @param text Lucene query.
+     * @param orgId Organization ID, or null.
+     * @param minSalary Lowest salary, or null.
+     * @param maxSalary Highest salary, or null.
+     * @param pageSize Persons fetched per round trip, before filtering, without an {@code orgId}.
+     * @param limit Maximum number of persons, after filtering.
+     * @return The persons whose resume and fields match.
+     */
+    public Stream<Person> searchResume(String text, Long orgId, Double minSalary, Double maxSalary,
+                                       int pageSize, int limit);
+
+}
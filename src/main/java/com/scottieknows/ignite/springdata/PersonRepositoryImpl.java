@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.cache.Cache;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.affinity.AffinityKey;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.cache.query.SqlQuery;
+import org.apache.ignite.cache.query.TextQuery;
+import org.apache.ignite.lang.IgniteCallable;
+import org.apache.ignite.resources.IgniteInstanceResource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Sends each query to the node that owns the organization with
+ * {@link org.apache.ignite.IgniteCompute#affinityCall(String, Object, IgniteCallable)}, which keeps the
+ * partition on that node while the query runs, and runs it there as local sql.  The callables reach
+ * the server nodes through peer class loading.
+ */
+public class PersonRepositoryImpl implements PersonRepositoryCustom {
+
+    static final String PERSON_CACHE = "PersonCache";
+    static final String ORGANIZATION_CACHE = "OrganizationCache";
+
+    static final String EMPLOYEES = "SELECT o.name, p.firstName, p.lastName, p.salary"
+        + " FROM Person p, \"OrganizationCache\".Organization o WHERE p.orgId = o.id AND o.id = ?";
+
+    static final String ORG_PAGE = "orgId = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String IDS = "SELECT id FROM Person WHERE orgId > ?";
+
+    private final Ignite ignite;
+
+    @Autowired
+    public PersonRepositoryImpl(Ignite igniteInstance) {
+        this.ignite = igniteInstance;
+    }
+
+    @Override
+    public List<Person> findByOrgIdCollocated(long orgId) {
+        return ignite.compute().affinityCall(PERSON_CACHE, orgId, new FindByOrgId(orgId));
+    }
+
+    @Override
+    public List<List<?>> findEmployeesCollocated(long orgId) {
+        // the join reads both caches locally, so both partitions are held on the owner
+        return ignite.compute().affinityCall(Arrays.asList(PERSON_CACHE, ORGANIZATION_CACHE), orgId,
+            new FindEmployees(orgId));
+    }
+
+    @Override
+    public List<Person> findByOrgIdAfter(long orgId, long afterId, int pageSize) {
+        SqlQuery<AffinityKey<Long>, Person> query = new SqlQuery<>(Person.class, ORG_PAGE);
+        query.setArgs(orgId, afterId, pageSize);
+        List<Person> persons = new ArrayList<>(pageSize);
+        try (QueryCursor<Cache.Entry<AffinityKey<Long>, Person>> cursor = personCache().query(query)) {
+            for (Cache.Entry<AffinityKey<Long>, Person> entry : cursor) {
+                persons.add(entry.getValue());
+            }
+        }
+        return persons;
+    }
+
+    @Override
+    public Stream<Person> streamByFirstName(String name, int pageSize) {
+        SqlQuery<AffinityKey<Long>, Person> query = new SqlQuery<>(Person.class, "firstName = ?");
+        query.setArgs(name);
+        query.setPageSize(pageSize);
+        return stream(personCache().query(query)).map(Cache.Entry::getValue);
+    }
+
+    @Override
+    public Stream<Long> streamId(long orgId, int pageSize) {
+        SqlFieldsQuery query = new SqlFieldsQuery(IDS);
+        query.setArgs(orgId);
+        query.setPageSize(pageSize);
+        query.setLazy(true);
+        return stream(personCache().query(query)).map(row -> (Long) row.get(0));
+    }
+
+    @Override
+    public Stream<Person> searchResume(String text, int pageSize, int limit) {
+        return searchResume(text, null, null, null, pageSize, limit);
+    }
+
+    /**
+     * Text queries cannot be combined with sql in 2.3.  With an organization the search runs as a
+     * local text query on the node that owns it and the salaries are matched there, otherwise the
+     * fields are matched as the persons stream in.
+     */
+    @Override
+    public Stream<Person> searchResume(String text, Long orgId, Double minSalary, Double maxSalary,
+                                       int pageSize, int limit) {
+        if (orgId != null) {
+            return ignite.compute().affinityCall(PERSON_CACHE, orgId,
+                new SearchResume(text, orgId, minSalary, maxSalary, pageSize, limit)).stream();
+        }
+        TextQuery<AffinityKey<Long>, Person> query = new TextQuery<>(Person.class, text);
+        query.setPageSize(pageSize);
+        return stream(personCache().query(query)).map(Cache.Entry::getValue)
+            .filter(person -> matches(person, null, minSalary, maxSalary))
+            .limit(limit);
+    }
+
+    static boolean matches(Person person, Long orgId, Double minSalary, Double maxSalary) {
+        return (orgId == null || orgId.equals(person.getOrgId()))
+            && (minSalary == null || person.getSalary() >= minSalary)
+            && (maxSalary == null || person.getSalary() <= maxSalary);
+    }
+
+    private IgniteCache<AffinityKey<Long>, Person> personCache() {
+        return ignite.cache(PERSON_CACHE);
+    }
+
+    /**
+     * Iterating the cursor fetches the next page once the current one is consumed, closing the
+     * stream closes the cursor.
+     */
+    private static <T> Stream<T> stream(QueryCursor<T> cursor) {
+        return StreamSupport.stream(cursor.spliterator(), false).onClose(cursor::close);
+    }
+
+    static class FindByOrgId implements IgniteCallable<List<Person>> {
+        private static final long serialVersionUID = 1L;
+
+        @IgniteInstanceResource
+        private transient Ignite ignite;
+
+        private final long orgId;
+
+        FindByOrgId(long orgId) {
+            this.orgId = orgId;
+        }
+
+        @Override
+        public List<Person> call() {
+            IgniteCache<AffinityKey<Long>, Person> cache = ignite.cache(PERSON_CACHE);
+            SqlQuery<AffinityKey<Long>, Person> query = new SqlQuery<>(Person.class, "orgId = ?");
+            query.setArgs(orgId);
+            query.setLocal(true);
+            List<Person> persons = new ArrayList<>();
+            try (QueryCursor<Cache.Entry<AffinityKey<Long>, Person>> cursor = cache.query(query)) {
+                for (Cache.Entry<AffinityKey<Long>, Person> entry : cursor) {
+                    persons.add(entry.getValue());
+                }
+            }
+            return persons;
+        }
+    }
+
+    static class FindEmployees implements IgniteCallable<List<List<?>>> {
+        private static final long serialVersionUID = 1L;
+
+        @IgniteInstanceResource
+        private transient Ignite ignite;
+
+        private final long orgId;
+
+        FindEmployees(long orgId) {
+            this.orgId = orgId;
+        }
+
+        @Override
+        public List<List<?>> call() {
+            SqlFieldsQuery query = new SqlFieldsQuery(EMPLOYEES);
+            query.setArgs(orgId);
+            query.setLocal(true);
+            return ignite.cache(PERSON_CACHE).query(query).getAll();
+        }
+    }
+
+    static class SearchResume implements IgniteCallable<List<Person>> {
+        private static final long serialVersionUID = 1L;
+
+        @IgniteInstanceResource
+        private transient Ignite ignite;
+
+        private final String text;
+        private final long orgId;
+        private final Double minSalary;
+        private final Double maxSalary;
+        private final int pageSize;
+        private final int limit;
+
+        SearchResume(String text, long orgId, Double minSalary, Double maxSalary, int pageSize, int limit) {
+            this.text = text;
+            this.orgId = orgId;
+            this.minSalary = minSalary;
+            this.maxSalary = maxSalary;
+            this.pageSize = pageSize;
+            this.limit = limit;
+        }
+
+        @Override
+        public List<Person> call() {
+            IgniteCache<AffinityKey<Long>, Person> cache = ignite.cache(PERSON_CACHE);
+            TextQuery<AffinityKey<Long>, Person> query = new TextQuery<>(Person.class, text);
+            query.setPageSize(pageSize);
+            query.setLocal(true);
+            List<Person> persons = new ArrayList<>();
+            try (QueryCursor<Cache.Entry<AffinityKey<Long>, Person>> cursor = cache.query(query)) {
+                for (Cache.Entry<AffinityKey<Long>, Person> entry : cursor) {
+                    Person person = entry.getValue();
+                    if (matches(person, orgId, minSalary, maxSalary)) {
+                        persons.add(person);
+                        if (persons.size() == limit) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return persons;
+        }
+    }
+
+}
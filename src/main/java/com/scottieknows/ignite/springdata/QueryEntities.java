@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import org.apache.ignite.cache.QueryEntity;
+import org.apache.ignite.cache.QueryIndex;
+import org.apache.ignite.configuration.CacheConfiguration;
+
+/**
+ * Index settings of the query entities that the query annotations cannot express.
+ */
+public class QueryEntities {
+
+    private QueryEntities() {
+    }
+
+    /**
+     * Sets the inline sizes declared with {@link GroupIndexInlineSize} on the value classes of the
+     * indexed types of the cache.
+     * @throws IllegalArgumentException if a declared index does not exist
+     */
+    public static <K, V> CacheConfiguration<K, V> applyGroupIndexInlineSizes(CacheConfiguration<K, V> cacheConfiguration) {
+        for (QueryEntity entity : cacheConfiguration.getQueryEntities()) {
+            Class<?> valueClass;
+            try {
+                valueClass = Class.forName(entity.getValueType());
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            for (GroupIndexInlineSize inlineSize : valueClass.getAnnotationsByType(GroupIndexInlineSize.class)) {
+                QueryIndex index = entity.getIndexes().stream()
+                    .filter(i -> inlineSize.index().equals(i.getName()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("no index " + inlineSize.index() + " on " + valueClass));
+                index.setInlineSize(inlineSize.size());
+            }
+        }
+        return cacheConfiguration;
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.communication.tcp.TcpCommunicationSpi;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+
+/**
+ * Ignite nodes of a test, on the loopback interface and on ports that do not collide with a locally
+ * running cluster or the benchmarks' {@code EmbeddedCluster}.  Every node of a test gets its own
+ * directory under one temporary work directory, that is deleted on {@link #close()} together with the
+ * nodes that are still running.
+ */
+public class TestCluster implements AutoCloseable {
+
+    private static final String LOCAL_HOST = "127.0.0.1";
+    private static final int DISCOVERY_PORT = 47700;
+    private static final int COMMUNICATION_PORT = 47300;
+    private static final int NODES = 10;
+
+    static {
+        System.setProperty(IgniteSystemProperties.IGNITE_UPDATE_NOTIFIER, "false");
+        System.setProperty(IgniteSystemProperties.IGNITE_NO_ASCII, "true");
+        System.setProperty(IgniteSystemProperties.IGNITE_PERFORMANCE_SUGGESTIONS_DISABLED, "true");
+    }
+
+    private final Path workDirectory;
+    private final Set<String> nodeNames = new LinkedHashSet<>();
+
+    public TestCluster() throws IOException {
+        workDirectory = Files.createTempDirectory("ignite-test");
+    }
+
+    /**
+     * @param name instance name and consistent id of the node, a node that is restarted with the same
+     * name finds its persisted data again
+     * @return configuration of a server node that joins the other nodes of the test
+     */
+    public IgniteConfiguration configuration(String name) {
+        nodeNames.add(name);
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        cfg.setIgniteInstanceName(name);
+        cfg.setConsistentId(name);
+        cfg.setWorkDirectory(workDirectory.resolve(name).toString());
+        cfg.setLocalHost(LOCAL_HOST);
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        ipFinder.setAddresses(Collections.singletonList(LOCAL_HOST + ":" + DISCOVERY_PORT + ".." + (DISCOVERY_PORT + NODES - 1)));
+        TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
+        discoverySpi.setIpFinder(ipFinder);
+        discoverySpi.setLocalPort(DISCOVERY_PORT);
+        discoverySpi.setLocalPortRange(NODES);
+        cfg.setDiscoverySpi(discoverySpi);
+        TcpCommunicationSpi communicationSpi = new TcpCommunicationSpi();
+        communicationSpi.setLocalPort(COMMUNICATION_PORT);
+        communicationSpi.setLocalPortRange(NODES);
+        cfg.setCommunicationSpi(communicationSpi);
+        return cfg;
+    }
+
+    public Ignite startServer(String name) {
+        return Ignition.start(configuration(name));
+    }
+
+    public Ignite startClient(String name) {
+        return Ignition.start(configuration(name).setClientMode(true));
+    }
+
+    @Override
+    public void close() throws IOException {
+        // in reverse order of configuration, clients are usually configured after their servers
+        List<String> names = new ArrayList<>(nodeNames);
+        Collections.reverse(names);
+        names.forEach(name -> Ignition.stop(name, true));
+        Files.walk(workDirectory).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.configuration.BinaryConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scottieknows.ignite.TestCluster;
+import com.scottieknows.ignite.springdata.Person;
+
+/**
+ * A client joins a server node only with the server's binary configuration.
+ */
+public class BinaryConfigurationJoinTest {
+
+    private TestCluster cluster;
+    private Ignite server;
+
+    @Before
+    public void setUp() throws IOException {
+        cluster = new TestCluster();
+        IgniteConfiguration cfg = cluster.configuration("binaryServer");
+        cfg.setBinaryConfiguration(IgniteConfig.binaryConfiguration(true));
+        server = Ignition.start(cfg);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cluster.close();
+    }
+
+    @Test
+    public void clientWithTheSharedConfigurationJoins() {
+        IgniteConfiguration cfg = cluster.configuration("binaryClient").setClientMode(true);
+        cfg.setBinaryConfiguration(IgniteConfig.binaryConfiguration(true));
+        Ignite client = Ignition.start(cfg);
+        IgniteCache<Long, Person> persons = client.getOrCreateCache("persons");
+        persons.put(1L, new Person(1L, 2L, "John", "Smith", 15000, "Worked for Apple"));
+        // written by the serializer on the client, read as fields on the server
+        BinaryObject person = server.cache("persons").<Long, BinaryObject>withKeepBinary().get(1L);
+        assertThat(person.<Double>field("salary")).isEqualTo(15000);
+        assertThat(persons.get(1L).getLastName()).isEqualTo("Smith");
+    }
+
+    @Test
+    public void clientWithoutTheSerializerIsRefused() {
+        IgniteConfiguration cfg = cluster.configuration("plainClient").setClientMode(true);
+        cfg.setBinaryConfiguration(new BinaryConfiguration());
+        assertThatThrownBy(() -> Ignition.start(cfg)).hasStackTraceContaining("binary configuration");
+    }
+
+}
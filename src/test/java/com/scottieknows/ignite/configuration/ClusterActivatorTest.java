@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cluster.ClusterGroup;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scottieknows.ignite.TestCluster;
+import com.scottieknows.ignite.configuration.DataStorageProperties.DataRegion;
+
+public class ClusterActivatorTest {
+
+    private TestCluster cluster;
+    private IgniteLauncher igniteLauncher;
+
+    @Before
+    public void setUp() throws IOException {
+        cluster = new TestCluster();
+        igniteLauncher = launch();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cluster.close();
+    }
+
+    @Test
+    public void activatesOnceEnoughServerNodesJoinedAndKeepsTheData() throws IOException {
+        Ignite ignite = igniteLauncher.getIgnite();
+        assertThat(ignite.active()).isFalse();
+        assertThat(new ClusterActivator(igniteLauncher, 1, true).activate()).isTrue();
+        assertThat(ignite.active()).isTrue();
+        ignite.getOrCreateCache("persisted").put(1, "one");
+
+        ignite.close();
+        igniteLauncher = launch();
+        assertThat(new ClusterActivator(igniteLauncher, 1, true).activate()).isTrue();
+        assertThat(igniteLauncher.getIgnite().cache("persisted").get(1)).isEqualTo("one");
+    }
+
+    @Test
+    public void waitsForTheServerNodesUntilClosed() throws Exception {
+        ClusterActivator clusterActivator = new ClusterActivator(igniteLauncher, 2, false);
+        clusterActivator.setPollInterval(10);
+        CompletableFuture<Boolean> activated = CompletableFuture.supplyAsync(clusterActivator::activate);
+        Thread.sleep(200);
+        assertThat(activated.isDone()).isFalse();
+        clusterActivator.close();
+        assertThat(activated.get(10, TimeUnit.SECONDS)).isFalse();
+        assertThat(igniteLauncher.getIgnite().active()).isFalse();
+    }
+
+    @Test
+    public void retriesAFailedActivation() {
+        Ignite ignite = mock(Ignite.class, RETURNS_DEEP_STUBS);
+        when(ignite.active()).thenReturn(false);
+        when(ignite.cluster().forServers().nodes()).thenReturn(Collections.singletonList(mock(ClusterNode.class)));
+        doThrow(new IgniteException("node left")).doNothing().when(ignite).active(true);
+        ClusterActivator clusterActivator = new ClusterActivator(launcher(ignite), 1, false);
+        clusterActivator.setPollInterval(10);
+        assertThat(clusterActivator.activate()).isTrue();
+        verify(ignite, times(2)).active(true);
+    }
+
+    @Test
+    public void eachServerNodeWarmsUpOnlyItself() {
+        Ignite ignite = activeCluster(false);
+        ClusterGroup local = ignite.cluster().forLocal();
+        assertThat(new ClusterActivator(launcher(ignite), 1, true).activate()).isTrue();
+        verify(ignite, times(1)).compute(any(ClusterGroup.class));
+        verify(ignite).compute(local);
+        verify(ignite.compute(local)).runAsync(any(ClusterActivator.WarmUp.class));
+    }
+
+    @Test
+    public void clientNodesDoNotWarmUp() {
+        Ignite ignite = activeCluster(true);
+        assertThat(new ClusterActivator(launcher(ignite), 1, true).activate()).isTrue();
+        verify(ignite, never()).compute(any(ClusterGroup.class));
+    }
+
+    private static Ignite activeCluster(boolean client) {
+        Ignite ignite = mock(Ignite.class, RETURNS_DEEP_STUBS);
+        when(ignite.active()).thenReturn(true);
+        when(ignite.cluster().localNode().isClient()).thenReturn(client);
+        when(ignite.cacheNames()).thenReturn(Collections.singleton("persisted"));
+        return ignite;
+    }
+
+    private static IgniteLauncher launcher(Ignite ignite) {
+        IgniteLauncher launcher = mock(IgniteLauncher.class);
+        when(launcher.getIgnite()).thenReturn(ignite);
+        return launcher;
+    }
+
+    private IgniteLauncher launch() {
+        DataRegion region = new DataRegion();
+        region.setMaxSize(64L * 1024 * 1024);
+        region.setPersistenceEnabled(true);
+        DataStorageProperties dataStorageProperties = new DataStorageProperties();
+        dataStorageProperties.getRegions().put("default", region);
+        // the same name on every launch, the consistent id finds the persisted data again
+        IgniteConfiguration cfg = cluster.configuration("clusterActivatorTest");
+        cfg.setDataStorageConfiguration(dataStorageProperties.toDataStorageConfiguration());
+        IgniteLauncher launcher = new IgniteLauncher(cfg);
+        launcher.launch();
+        return launcher;
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.ignite.DataRegionMetrics;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scottieknows.ignite.TestCluster;
+import com.scottieknows.ignite.configuration.DataStorageProperties.DataRegion;
+
+/**
+ * Fills a capped data region with several times its size from a single server node.
+ */
+public class DataRegionEvictionTest {
+
+    private static final String REGION = "capped";
+    private static final long MAX_SIZE = 32L * 1024 * 1024;
+    private static final int VALUE_SIZE = 1024;
+    private static final int ENTRIES = 200_000;
+
+    private TestCluster cluster;
+    private Ignite ignite;
+
+    @Before
+    public void setUp() throws IOException {
+        cluster = new TestCluster();
+        DataRegion capped = new DataRegion();
+        capped.setInitialSize(16L * 1024 * 1024);
+        capped.setMaxSize(MAX_SIZE);
+        DataStorageProperties dataStorageProperties = new DataStorageProperties();
+        dataStorageProperties.getRegions().put(REGION, capped);
+        IgniteConfiguration cfg = cluster.configuration("dataRegionTest");
+        cfg.setDataStorageConfiguration(dataStorageProperties.toDataStorageConfiguration());
+        ignite = Ignition.start(cfg);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cluster.close();
+    }
+
+    @Test
+    public void pagesAreEvictedAtTheRegionLimitOffHeap() {
+        CacheConfiguration<Integer, byte[]> cacheConfiguration = new CacheConfiguration<>("capped");
+        cacheConfiguration.setDataRegionName(REGION);
+        IgniteCache<Integer, byte[]> cache = ignite.createCache(cacheConfiguration);
+        byte[] value = new byte[VALUE_SIZE];
+        ThreadLocalRandom.current().nextBytes(value);
+        long heapBefore = usedHeap();
+        try (IgniteDataStreamer<Integer, byte[]> streamer = ignite.dataStreamer(cache.getName())) {
+            for (int i = 0; i < ENTRIES; i++) {
+                streamer.addData(i, value);
+            }
+        }
+        long heapGrowth = usedHeap() - heapBefore;
+
+        // about 6 times the region was written, without an out of memory error
+        assertThat(cache.size()).isGreaterThan(0).isLessThan(ENTRIES);
+        DataRegionMetrics metrics = ignite.dataRegionMetrics(REGION);
+        assertThat(metrics.getTotalAllocatedPages() * DataStorageConfiguration.DFLT_PAGE_SIZE).isLessThanOrEqualTo(MAX_SIZE);
+        // the entries live off heap, what is left on heap is not proportional to what was written
+        assertThat(heapGrowth).isLessThan(ENTRIES * VALUE_SIZE / 10);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -0,0 +1,408 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.scottieknows.ignite.configuration.IgnitePodResolver.KubePodWatcher;
+
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.Node;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.PodStatus;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.api.model.WatchEvent;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher.Action;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class IgnitePodResolverTest {
+
+    private static final String NAMESPACE = "default";
+    private static final String APP_LABEL = "ignite";
+
+    private static final String PODS_PATH = "/api/v1/namespaces/" + NAMESPACE + "/pods";
+    private static final String LIST_PATH = PODS_PATH + "?labelSelector=app%3D" + APP_LABEL + "&limit=2";
+
+    @Rule
+    public KubernetesServer server = new KubernetesServer(false);
+
+    private IgnitePodResolver resolver;
+    private KubePodWatcher watcher;
+
+    @Before
+    public void setUp() {
+        resolver = new IgnitePodResolver();
+        resolver.setNamespace(NAMESPACE);
+        resolver.setAppLabel(APP_LABEL);
+        watcher = resolver.new KubePodWatcher(resolver);
+    }
+
+    @Test
+    public void deletedPodIsRemoved() {
+        watcher.eventReceived(Action.ADDED, pod("pod-0", "10.0.0.1"));
+        watcher.eventReceived(Action.ADDED, pod("pod-1", "10.0.0.2"));
+        watcher.eventReceived(Action.DELETED, pod("pod-0", "10.0.0.1"));
+        assertThat(resolver.getRegisteredAddresses())
+            .containsExactly(new InetSocketAddress("10.0.0.2", TcpDiscoverySpi.DFLT_PORT));
+    }
+
+    @Test
+    public void podWithoutIpIsNotRegistered() {
+        watcher.eventReceived(Action.ADDED, pod("pod-0", null));
+        assertThat(resolver.getRegisteredAddresses()).isEmpty();
+        watcher.eventReceived(Action.MODIFIED, pod("pod-0", "10.0.0.1"));
+        watcher.eventReceived(Action.MODIFIED, pod("pod-0", null));
+        assertThat(resolver.getRegisteredAddresses()).isEmpty();
+    }
+
+    @Test
+    public void onlyRunningReadyPodsAreRegistered() {
+        Pod pending = pod("pod-0", "10.0.0.1");
+        pending.getStatus().setPhase("Pending");
+        Pod notReady = pod("pod-1", "10.0.0.2");
+        notReady.getStatus().getConditions().get(0).setStatus("False");
+        Pod terminating = pod("pod-2", "10.0.0.3");
+        terminating.getMetadata().setDeletionTimestamp("2018-01-01T00:00:00Z");
+        Pod ready = pod("pod-3", "10.0.0.4");
+        for (Pod pod : Arrays.asList(pending, notReady, terminating, ready)) {
+            watcher.eventReceived(Action.ADDED, pod);
+        }
+        assertThat(resolver.getRegisteredAddresses())
+            .containsExactly(new InetSocketAddress("10.0.0.4", TcpDiscoverySpi.DFLT_PORT));
+        // a registered pod that starts terminating is dropped before it is deleted
+        ready.getMetadata().setDeletionTimestamp("2018-01-01T00:00:00Z");
+        watcher.eventReceived(Action.MODIFIED, ready);
+        assertThat(resolver.getRegisteredAddresses()).isEmpty();
+    }
+
+    @Test
+    public void otherAppsAndNamespacesAreIgnored() {
+        watcher.eventReceived(Action.ADDED, pod("pod-0", "10.0.0.1", NAMESPACE, "other"));
+        watcher.eventReceived(Action.ADDED, pod("pod-1", "10.0.0.2", "other", APP_LABEL));
+        assertThat(resolver.getRegisteredAddresses()).isEmpty();
+    }
+
+    @Test
+    public void unchangedPodKeepsItsAddress() {
+        watcher.eventReceived(Action.ADDED, pod("pod-0", "10.0.0.1"));
+        Collection<InetSocketAddress> before = resolver.getRegisteredAddresses();
+        watcher.eventReceived(Action.MODIFIED, pod("pod-0", "10.0.0.1"));
+        assertThat(resolver.getRegisteredAddresses()).isSameAs(before);
+        watcher.eventReceived(Action.MODIFIED, pod("pod-0", "10.0.0.2"));
+        assertThat(resolver.getRegisteredAddresses())
+            .containsExactly(new InetSocketAddress("10.0.0.2", TcpDiscoverySpi.DFLT_PORT));
+    }
+
+    @Test
+    public void podsOnTheSameNodeAndZoneAreCloser() {
+        // once, the zones are looked up a single time per node
+        server.expect().withPath("/api/v1/nodes/node-a").andReturn(200, node("node-a", "zone-1")).once();
+        server.expect().withPath("/api/v1/nodes/node-b").andReturn(200, node("node-b", "zone-1")).once();
+        server.expect().withPath("/api/v1/nodes/node-c").andReturn(200, node("node-c", "zone-2")).once();
+        resolver.setClient((DefaultKubernetesClient) server.getClient());
+        resolver.setNodeName("node-a");
+        watcher.eventReceived(Action.ADDED, scheduledPod("pod-0", "10.0.0.1", "node-a"));
+        watcher.eventReceived(Action.ADDED, scheduledPod("pod-1", "10.0.0.2", "node-b"));
+        watcher.eventReceived(Action.ADDED, scheduledPod("pod-2", "10.0.0.3", "node-c"));
+        watcher.eventReceived(Action.ADDED, pod("pod-3", "10.0.0.4"));
+        for (int i = 0; i < 2; i++) {
+            assertThat(resolver.distance(address("10.0.0.1"))).isEqualTo(AddressLocality.SAME_NODE);
+            assertThat(resolver.distance(address("10.0.0.2"))).isEqualTo(AddressLocality.SAME_ZONE);
+            assertThat(resolver.distance(address("10.0.0.3"))).isEqualTo(AddressLocality.REMOTE);
+            assertThat(resolver.distance(address("10.0.0.4"))).isEqualTo(AddressLocality.REMOTE);
+        }
+    }
+
+    @Test
+    public void zoneIsReadAgainAfterAFailedLookup() {
+        server.expect().withPath("/api/v1/nodes/node-a").andReturn(200, node("node-a", "zone-1")).once();
+        server.expect().withPath("/api/v1/nodes/node-b").andReturn(500, "unavailable").once();
+        server.expect().withPath("/api/v1/nodes/node-b").andReturn(200, node("node-b", "zone-1")).once();
+        resolver.setClient((DefaultKubernetesClient) server.getClient());
+        resolver.setNodeName("node-a");
+        watcher.eventReceived(Action.ADDED, scheduledPod("pod-1", "10.0.0.2", "node-b"));
+        assertThat(resolver.distance(address("10.0.0.2"))).isEqualTo(AddressLocality.REMOTE);
+        assertThat(resolver.distance(address("10.0.0.2"))).isEqualTo(AddressLocality.SAME_ZONE);
+    }
+
+    /**
+     * Discovery reads against a flood of watch events, readers must always see a consistent snapshot
+     * and the final snapshot must reflect the last event per pod.
+     */
+    @Test
+    public void concurrentReadsDuringPodChurn() throws Exception {
+        int writers = 4;
+        int readers = 4;
+        int podsPerWriter = 50;
+        int eventsPerWriter = 100_000;
+        Pod[][][] pods = new Pod[writers][podsPerWriter][2];
+        for (int w = 0; w < writers; w++) {
+            for (int p = 0; p < podsPerWriter; p++) {
+                for (int g = 0; g < 2; g++) {
+                    pods[w][p][g] = pod(podName(w, p), ip(w, p, g));
+                }
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<Long>> reads = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                reads.add(executor.submit(() -> {
+                    start.await();
+                    long count = 0;
+                    while (!done.get()) {
+                        Collection<InetSocketAddress> addresses = resolver.getRegisteredAddresses();
+                        Set<InetSocketAddress> unique = new HashSet<>();
+                        for (InetSocketAddress address : addresses) {
+                            if (address.getPort() != TcpDiscoverySpi.DFLT_PORT || address.isUnresolved()
+                                    || !unique.add(address)) {
+                                throw new AssertionError("inconsistent snapshot " + addresses);
+                            }
+                        }
+                        if (addresses.size() > writers * podsPerWriter) {
+                            throw new AssertionError("too many addresses " + addresses);
+                        }
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < eventsPerWriter; i++) {
+                        int p = random.nextInt(podsPerWriter);
+                        Action action = Action.values()[random.nextInt(3)];
+                        watcher.eventReceived(action, pods[writer][p][random.nextInt(2)]);
+                    }
+                    // settle on a known state, even pods up on their final ip, odd pods deleted
+                    for (int p = 0; p < podsPerWriter; p++) {
+                        Action action = (p % 2 == 0) ? Action.MODIFIED : Action.DELETED;
+                        watcher.eventReceived(action, pods[writer][p][1]);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(60, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            for (Future<Long> read : reads) {
+                assertThat(read.get(60, TimeUnit.SECONDS)).isPositive();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Set<InetSocketAddress> expected = new HashSet<>();
+        for (int w = 0; w < writers; w++) {
+            for (int p = 0; p < podsPerWriter; p += 2) {
+                expected.add(new InetSocketAddress(ip(w, p, 1), TcpDiscoverySpi.DFLT_PORT));
+            }
+        }
+        assertThat(resolver.getRegisteredAddresses()).containsOnlyElementsOf(expected).hasSize(expected.size());
+    }
+
+    @Test
+    public void initListsPagesAndWatchesFromTheListVersion() throws Exception {
+        expectList("", "1", "c1", pod("pod-0", "10.0.0.1"), pod("pod-1", "10.0.0.2"));
+        expectList("&continue=c1", "1", null, pod("pod-2", "10.0.0.3"));
+        server.expect().withPath(watchPath("1")).andUpgradeToWebSocket().open()
+            .waitFor(100).andEmit(new WatchEvent(pod("pod-3", "10.0.0.4", "2"), "ADDED"))
+            .done().once();
+        initFromServer();
+        assertThat(resolver.getRegisteredAddresses()).hasSize(3);
+        awaitAddresses(4);
+    }
+
+    @Test
+    public void closedWatchResumesFromTheLastVersionWithoutListing() throws Exception {
+        expectList("", "1", null, pod("pod-0", "10.0.0.1"));
+        server.expect().withPath(watchPath("1")).andUpgradeToWebSocket().open()
+            .waitFor(100).andEmit(new WatchEvent(pod("pod-1", "10.0.0.2", "5"), "ADDED"))
+            .done().once();
+        server.expect().withPath(watchPath("5")).andUpgradeToWebSocket().open()
+            .waitFor(100).andEmit(new WatchEvent(pod("pod-2", "10.0.0.3", "6"), "ADDED"))
+            .done().once();
+        initFromServer();
+        awaitAddresses(2);
+        watcher.onClose(new KubernetesClientException("connection reset", 500, null));
+        awaitAddresses(3);
+        assertThat(requestedPaths()).containsExactly(LIST_PATH, watchPath("1"), watchPath("5"));
+    }
+
+    @Test
+    public void expiredVersionListsAgainAndKeepsTheOldSnapshotMeanwhile() throws Exception {
+        expectList("", "1", null, pod("pod-0", "10.0.0.1"), pod("pod-1", "10.0.0.2"));
+        server.expect().withPath(watchPath("1")).andUpgradeToWebSocket().open()
+            .waitFor(100).andEmit(new WatchEvent(new StatusBuilder().withCode(410).withMessage("too old").build(), "ERROR"))
+            .done().once();
+        // pod-0 went away while the watch was down
+        expectList("", "9", null, pod("pod-1", "10.0.0.2"));
+        server.expect().withPath(watchPath("9")).andUpgradeToWebSocket().open().done().once();
+        initFromServer();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        int size;
+        while ((size = resolver.getRegisteredAddresses().size()) != 1 && System.currentTimeMillis() < deadline) {
+            assertThat(size).isEqualTo(2);
+        }
+        assertThat(resolver.getRegisteredAddresses())
+            .containsExactly(new InetSocketAddress("10.0.0.2", TcpDiscoverySpi.DFLT_PORT));
+        assertThat(requestedPaths()).containsExactly(LIST_PATH, watchPath("1"), LIST_PATH, watchPath("9"));
+    }
+
+    private void initFromServer() {
+        resolver.setOauthToken("token");
+        resolver.setListPageSize(2);
+        resolver.setClient((DefaultKubernetesClient) server.getClient());
+        resolver.init();
+    }
+
+    private void expectList(String query, String resourceVersion, String continueToken, Pod... pods) {
+        server.expect().withPath(LIST_PATH + query).andReturn(200, podList(resourceVersion, continueToken, pods)).once();
+    }
+
+    private static PodList podList(String resourceVersion, String continueToken, Pod... pods) {
+        ListMeta metadata = new ListMeta();
+        metadata.setResourceVersion(resourceVersion);
+        if (continueToken != null) {
+            metadata.setAdditionalProperty("continue", continueToken);
+        }
+        PodList list = new PodList();
+        list.setMetadata(metadata);
+        list.setItems(Arrays.asList(pods));
+        return list;
+    }
+
+    private static String watchPath(String resourceVersion) {
+        return PODS_PATH + "?labelSelector=app%3D" + APP_LABEL + "&resourceVersion=" + resourceVersion + "&watch=true";
+    }
+
+    private void awaitAddresses(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (resolver.getRegisteredAddresses().size() != size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(resolver.getRegisteredAddresses()).hasSize(size);
+    }
+
+    private List<String> requestedPaths() throws InterruptedException {
+        List<String> paths = new ArrayList<>();
+        RecordedRequest request;
+        while ((request = server.getMockServer().takeRequest(100, TimeUnit.MILLISECONDS)) != null) {
+            paths.add(request.getPath());
+        }
+        return paths;
+    }
+
+    private static String podName(int writer, int pod) {
+        return "pod-" + writer + "-" + pod;
+    }
+
+    private static String ip(int writer, int pod, int generation) {
+        return "10." + writer + "." + pod + "." + (generation + 1);
+    }
+
+    private static InetSocketAddress address(String ip) {
+        return new InetSocketAddress(ip, TcpDiscoverySpi.DFLT_PORT);
+    }
+
+    private static Node node(String name, String zone) {
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        metadata.setLabels(Collections.singletonMap("failure-domain.beta.kubernetes.io/zone", zone));
+        Node node = new Node();
+        node.setMetadata(metadata);
+        return node;
+    }
+
+    private static Pod scheduledPod(String name, String ip, String nodeName) {
+        Pod pod = pod(name, ip);
+        PodSpec spec = new PodSpec();
+        spec.setNodeName(nodeName);
+        pod.setSpec(spec);
+        return pod;
+    }
+
+    private static Pod pod(String name, String ip) {
+        return pod(name, ip, NAMESPACE, APP_LABEL);
+    }
+
+    private static Pod pod(String name, String ip, String resourceVersion) {
+        Pod pod = pod(name, ip);
+        pod.getMetadata().setResourceVersion(resourceVersion);
+        return pod;
+    }
+
+    // not using PodBuilder, its bean validation costs seconds on first use
+    private static Pod pod(String name, String ip, String namespace, String appLabel) {
+        ObjectMeta metadata = new ObjectMeta();
+        metadata.setName(name);
+        metadata.setNamespace(namespace);
+        metadata.setLabels(Collections.singletonMap("app", appLabel));
+        PodStatus status = new PodStatus();
+        status.setPodIP(ip);
+        status.setPhase("Running");
+        PodCondition ready = new PodCondition();
+        ready.setType("Ready");
+        ready.setStatus("True");
+        status.setConditions(Collections.singletonList(ready));
+        Pod pod = new Pod();
+        pod.setMetadata(metadata);
+        pod.setStatus(status);
+        return pod;
+    }
+
+}
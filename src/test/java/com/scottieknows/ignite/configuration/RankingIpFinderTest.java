@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.junit.After;
+import org.junit.Test;
+
+public class RankingIpFinderTest {
+
+    private final List<ServerSocket> listeners = new ArrayList<>();
+
+    @After
+    public void tearDown() throws IOException {
+        for (ServerSocket listener : listeners) {
+            listener.close();
+        }
+    }
+
+    @Test
+    public void reachableAddressesComeFirst() throws IOException {
+        InetSocketAddress refused = refused();
+        InetSocketAddress live = listen();
+        RankingIpFinder ipFinder = new RankingIpFinder(vmIpFinder(refused, live));
+        assertThat(ipFinder.getRegisteredAddresses()).containsExactly(live, refused);
+    }
+
+    @Test
+    public void recentlyReachableAddressesComeBeforeOnesThatNeverAnswered() throws IOException {
+        InetSocketAddress refused = refused();
+        InetSocketAddress stopped = listen();
+        InetSocketAddress live = listen();
+        RankingIpFinder ipFinder = new RankingIpFinder(vmIpFinder(refused, stopped, live));
+        assertThat(ipFinder.getRegisteredAddresses()).containsExactly(stopped, live, refused);
+        listeners.remove(0).close();
+        assertThat(ipFinder.getRegisteredAddresses()).containsExactly(live, stopped, refused);
+        ipFinder.setReachableTtl(0);
+        assertThat(ipFinder.getRegisteredAddresses()).containsExactly(live, refused, stopped);
+    }
+
+    @Test
+    public void closerAddressesComeFirst() throws IOException {
+        InetSocketAddress remote = listen();
+        InetSocketAddress sameZone = listen();
+        InetSocketAddress sameNode = listen();
+        LocalityIpFinder delegate = new LocalityIpFinder();
+        delegate.setAddresses(Arrays.asList(address(remote), address(sameZone), address(sameNode)));
+        delegate.distances.put(sameZone, AddressLocality.SAME_ZONE);
+        delegate.distances.put(sameNode, AddressLocality.SAME_NODE);
+        RankingIpFinder ipFinder = new RankingIpFinder(delegate);
+        assertThat(ipFinder.getRegisteredAddresses()).containsExactly(sameNode, sameZone, remote);
+    }
+
+    @Test
+    public void rankedSpiKeepsTheOrder() throws IOException {
+        InetSocketAddress refused = refused();
+        List<InetSocketAddress> live = Arrays.asList(listen(), listen(), listen(), listen());
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        addresses.add(refused);
+        addresses.addAll(live);
+        RankedTcpDiscoverySpi discoverySpi = new RankedTcpDiscoverySpi();
+        discoverySpi.setIpFinder(new RankingIpFinder(vmIpFinder(addresses.toArray(new InetSocketAddress[0]))));
+        List<InetSocketAddress> expected = new ArrayList<>(live);
+        expected.add(refused);
+        for (int i = 0; i < 5; i++) {
+            assertThat(discoverySpi.resolvedAddresses()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private InetSocketAddress listen() throws IOException {
+        ServerSocket listener = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        listeners.add(listener);
+        return new InetSocketAddress(listener.getInetAddress(), listener.getLocalPort());
+    }
+
+    private static InetSocketAddress refused() throws IOException {
+        try (ServerSocket listener = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            return new InetSocketAddress(listener.getInetAddress(), listener.getLocalPort());
+        }
+    }
+
+    private static TcpDiscoveryVmIpFinder vmIpFinder(InetSocketAddress... addresses) {
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        List<String> hostPorts = new ArrayList<>();
+        for (InetSocketAddress address : addresses) {
+            hostPorts.add(address(address));
+        }
+        ipFinder.setAddresses(hostPorts);
+        return ipFinder;
+    }
+
+    private static String address(InetSocketAddress address) {
+        return address.getHostString() + ":" + address.getPort();
+    }
+
+    private static class LocalityIpFinder extends TcpDiscoveryVmIpFinder implements AddressLocality {
+        private final Map<InetSocketAddress, Integer> distances = new HashMap<>();
+
+        @Override
+        public int distance(InetSocketAddress address) {
+            return distances.getOrDefault(address, REMOTE);
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.EventType;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
+import org.apache.ignite.cache.spring.SpringCacheManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+
+import com.scottieknows.ignite.TestCluster;
+
+/**
+ * Subscriptions of a client node to a spring cache of one server node.
+ */
+public class CacheSubscriptionsTest {
+
+    private static final String CACHE = "subscribed";
+    private static final int BUFFER_SIZE = 64;
+    private static final long TIME_INTERVAL = 100;
+
+    private TestCluster cluster;
+    private Ignite ignite;
+    private Ignite client;
+    private IgniteCache<Integer, String> cache;
+    private CacheSubscriptions subscriptions;
+    private Cache springCache;
+
+    @Before
+    public void setUp() throws Exception {
+        cluster = new TestCluster();
+        ignite = cluster.startServer("cacheSubscriptionsServer");
+        // subscribed from a client like the application, events of local updates are not buffered
+        client = cluster.startClient("cacheSubscriptionsClient");
+        SpringCacheManager springCacheManager = new SpringCacheManager();
+        springCacheManager.setIgniteInstanceName(client.name());
+        springCacheManager.afterPropertiesSet();
+        subscriptions = new CacheSubscriptions(springCacheManager, BUFFER_SIZE, TIME_INTERVAL);
+        springCache = springCacheManager.getCache(CACHE);
+        cache = ignite.cache(CACHE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cluster.close();
+    }
+
+    @Test
+    public void listenersGetBatchesOfTheEventsThatPassTheRemoteFilter() throws InterruptedException {
+        List<List<CacheEntryEvent<? extends Integer, ? extends String>>> batches = new CopyOnWriteArrayList<>();
+        CacheEntryEventSerializableFilter<Integer, String> even = event -> event.getKey() % 2 == 0;
+        CacheSubscriptions.Subscription subscription = subscriptions.subscribe(CACHE, even, batches::add);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                cache.put(i, "value" + i);
+            }
+            cache.remove(2);
+            await(() -> batches.stream().mapToInt(List::size).sum() == 501);
+        } finally {
+            subscription.close();
+        }
+        assertThat(batches.stream().flatMap(List::stream).allMatch(event -> event.getKey() % 2 == 0)).isTrue();
+        assertThat(batches.stream().mapToInt(List::size).max().getAsInt()).isGreaterThan(1).isLessThanOrEqualTo(BUFFER_SIZE);
+        // events of a key arrive in order, batches of different partitions may interleave
+        List<EventType> key2 = batches.stream().flatMap(List::stream).filter(event -> event.getKey() == 2)
+            .map(CacheEntryEvent::getEventType).collect(Collectors.toList());
+        assertThat(key2).containsExactly(EventType.CREATED, EventType.REMOVED);
+    }
+
+    @Test
+    public void derivedEntriesAreInvalidated() throws InterruptedException {
+        Map<Integer, Integer> lengths = new ConcurrentHashMap<>();
+        cache.put(1, "one");
+        cache.put(2, "two");
+        lengths.put(1, 3);
+        lengths.put(2, 3);
+        CacheSubscriptions.Subscription subscription = subscriptions.invalidate(CACHE, lengths);
+        try {
+            cache.put(1, "eleven");
+            await(() -> !lengths.containsKey(1));
+            assertThat(lengths).containsOnlyKeys(2);
+            cache.remove(2);
+            await(lengths::isEmpty);
+        } finally {
+            subscription.close();
+        }
+    }
+
+    @Test
+    public void cachedNullValuesAreDeliveredAsNull() throws InterruptedException {
+        List<CacheEntryEvent<? extends Integer, ? extends String>> events = new CopyOnWriteArrayList<>();
+        CacheSubscriptions.Subscription subscription = subscriptions.<Integer, String>subscribe(CACHE, null, events::addAll);
+        try {
+            springCache.put(1, null);
+            springCache.put(1, "one");
+            await(() -> events.size() == 2);
+        } finally {
+            subscription.close();
+        }
+        assertThat(events.get(0).getValue()).isNull();
+        assertThat(events.get(1).getOldValue()).isNull();
+        assertThat(events.get(1).getValue()).isEqualTo("one");
+    }
+
+    /**
+     * The rate the events are delivered at is measured by {@code CacheSubscriptionBenchmark}.
+     */
+    @Test
+    public void deliversEverySustainedWrite() throws InterruptedException {
+        AtomicLong received = new AtomicLong();
+        long written = 0;
+        CacheSubscriptions.Subscription subscription = subscriptions.subscribe(CACHE, null,
+            batch -> received.addAndGet(batch.size()));
+        try {
+            Map<Integer, String> batch = new TreeMap<>();
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            while (System.nanoTime() < end) {
+                for (int i = 0; i < 100; i++) {
+                    batch.put((int) (written++ % 10000), "value");
+                }
+                cache.putAll(batch);
+                batch.clear();
+            }
+            // the stragglers of a partial buffer arrive after the time interval
+            long total = written;
+            await(() -> received.get() == total);
+        } finally {
+            subscription.close();
+        }
+        assertThat(received.get()).isEqualTo(written);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.apache.ignite.cache.spring.SpringCacheManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.scottieknows.ignite.TestCluster;
+
+/**
+ * Conditional writes of {@link CachingController} on ids that a GET already cached as a miss.
+ */
+public class CachingControllerTest {
+
+    private TestCluster cluster;
+    private AnnotationConfigApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() throws Exception {
+        cluster = new TestCluster();
+        SpringCacheManager springCacheManager = new SpringCacheManager();
+        springCacheManager.setIgniteInstanceName(cluster.startServer("cachingControllerTest").name());
+        springCacheManager.afterPropertiesSet();
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("cacheManager", springCacheManager);
+        context.register(CachingConfig.class);
+        context.refresh();
+        mockMvc = MockMvcBuilders.standaloneSetup(context.getBean(CachingController.class)).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.close();
+        cluster.close();
+    }
+
+    @Test
+    public void postIfAbsentStoresOverACachedMiss() throws Exception {
+        mockMvc.perform(get("/hello").param("id", "1")).andExpect(status().isOk()).andExpect(content().string(""));
+        mockMvc.perform(post("/hello/if-absent").contentType(MediaType.APPLICATION_JSON).content(request(1, "one")))
+            .andExpect(status().isCreated());
+        mockMvc.perform(get("/hello").param("id", "1")).andExpect(content().string("one"));
+        mockMvc.perform(post("/hello/if-absent").contentType(MediaType.APPLICATION_JSON).content(request(1, "uno")))
+            .andExpect(status().isConflict()).andExpect(content().string("one"));
+    }
+
+    @Test
+    public void emptyExpectedSwapsAnAbsentId() throws Exception {
+        mockMvc.perform(get("/hello").param("id", "2")).andExpect(status().isOk());
+        mockMvc.perform(put("/hello").param("expected", "").contentType(MediaType.APPLICATION_JSON).content(request(2, "two")))
+            .andExpect(status().isOk()).andExpect(content().string("two"));
+        mockMvc.perform(put("/hello").param("expected", "").contentType(MediaType.APPLICATION_JSON).content(request(2, "dos")))
+            .andExpect(status().isConflict()).andExpect(content().string("two"));
+        mockMvc.perform(put("/hello").param("expected", "two").contentType(MediaType.APPLICATION_JSON).content(request(2, "dos")))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/hello").param("id", "2")).andExpect(content().string("dos"));
+    }
+
+    private static String request(int id, String value) {
+        return "{\"id\":" + id + ",\"value\":\"" + value + "\"}";
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        public CachingService cachingService() {
+            return new CachingService();
+        }
+
+        @Bean
+        public CachingController cachingController() {
+            return new CachingController();
+        }
+
+    }
+
+}
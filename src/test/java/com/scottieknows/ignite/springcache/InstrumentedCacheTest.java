@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+import org.springframework.cache.Cache;
+
+public class InstrumentedCacheTest {
+
+    @Test
+    public void valueLoaderGetsLookUpOnceAndCountALoadAsAMiss() {
+        Cache delegate = mock(Cache.class);
+        // loads on the first lookup, the value is cached for the second
+        when(delegate.get(eq("1"), anyLoader()))
+            .thenAnswer(invocation -> ((Callable<?>) invocation.getArguments()[1]).call())
+            .thenReturn("one");
+        InstrumentedCache cache = new InstrumentedCache(delegate);
+        assertThat(cache.get("1", () -> "one")).isEqualTo("one");
+        assertThat(cache.get("1", () -> "other")).isEqualTo("one");
+        verify(delegate, times(2)).get(eq("1"), anyLoader());
+        verify(delegate, never()).get("1");
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getLatencies(InstrumentedCache.Operation.GET).getTotalCount()).isEqualTo(2);
+    }
+
+    private static Callable<Object> anyLoader() {
+        return any();
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springcache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import javax.cache.expiry.Duration;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.CachePeekMode;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.NearCacheConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+
+import com.scottieknows.ignite.TestCluster;
+import com.scottieknows.ignite.springcache.CacheTopologyProperties.CacheTopology;
+import com.scottieknows.ignite.springcache.CacheTopologyProperties.NearCache;
+
+/**
+ * Expiry and near cache eviction of the caches of a client node, configured per cache name.
+ */
+public class TopologySpringCacheManagerTest {
+
+    private static final long TTL = 500;
+    private static final long NEAR_MEMORY_SIZE = 256 * 1024;
+    private static final int KEYS = 20000;
+
+    private TestCluster cluster;
+    private Ignite ignite;
+    private Ignite client;
+    private Map<String, CacheTopology> topologies;
+    private TopologySpringCacheManager springCacheManager;
+
+    @Before
+    public void setUp() throws Exception {
+        cluster = new TestCluster();
+        ignite = cluster.startServer("topologyServer");
+        client = cluster.startClient("topologyClient");
+        topologies = new HashMap<>();
+        CacheTopology ids = new CacheTopology();
+        ids.setCreatedTtl(TTL);
+        NearCache near = new NearCache();
+        near.setPolicy(EvictionPolicyType.FIFO);
+        near.setMaxSize(0);
+        near.setMaxMemorySize(NEAR_MEMORY_SIZE);
+        ids.setNear(near);
+        topologies.put("ids", ids);
+        CacheTopology lazy = new CacheTopology();
+        lazy.setCreatedTtl(TTL);
+        lazy.setEagerTtl(false);
+        topologies.put("lazy", lazy);
+        CacheTopology misconfigured = new CacheTopology();
+        misconfigured.setMode(CacheMode.PARTITIONED);
+        misconfigured.setPartitions(0);
+        topologies.put("misconfigured", misconfigured);
+        springCacheManager = new TopologySpringCacheManager(topologies);
+        springCacheManager.setIgniteInstanceName(client.name());
+        springCacheManager.setDynamicCacheConfiguration(new CacheConfiguration<>());
+        NearCacheConfiguration<Object, Object> nearCacheConfiguration = new NearCacheConfiguration<>();
+        nearCacheConfiguration.setNearEvictionPolicy(EvictionPolicyType.LRU.create(1000, 0, 1));
+        springCacheManager.setDynamicNearCacheConfiguration(nearCacheConfiguration);
+        springCacheManager.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cluster.close();
+    }
+
+    @Test
+    public void memoryStaysBoundedUnderHighCardinalityKeys() throws InterruptedException {
+        Cache cache = springCacheManager.getCache("ids");
+        IgniteCache<?, ?> serverCache = ignite.cache("ids");
+        CountingFifoEvictionPolicy<?, ?> nearEvictionPolicy = (CountingFifoEvictionPolicy<?, ?>) nearEvictionPolicy(cache);
+        String value = RandomStringUtils.randomAlphanumeric(100);
+        long maxNearMemorySize = 0;
+        // every key is new, several times what fits in the near cache
+        for (int i = 0; i < KEYS; i++) {
+            cache.put(i, value);
+            maxNearMemorySize = Math.max(maxNearMemorySize, nearEvictionPolicy.getCurrentMemorySize());
+        }
+        // the near cache shrinks right after the entry that crosses the limit is added
+        assertThat(maxNearMemorySize).isLessThanOrEqualTo(NEAR_MEMORY_SIZE + 1024);
+        assertThat(nearEvictionPolicy.getEvictionCount()).isPositive();
+        // without expiry the server cache would hold every key
+        await(() -> serverCache.sizeLong(CachePeekMode.PRIMARY) == 0);
+    }
+
+    @Test
+    public void lazyTtlKeepsExpiredEntriesUntilTheyAreRead() throws InterruptedException {
+        Cache cache = springCacheManager.getCache("lazy");
+        IgniteCache<?, ?> serverCache = ignite.cache("lazy");
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "value" + i);
+        }
+        // the last entry expires last, reading it once it has expired removes only that entry
+        await(() -> cache.get(999) == null);
+        assertThat(serverCache.sizeLong(CachePeekMode.PRIMARY)).isEqualTo(999);
+        for (int i = 0; i < 999; i++) {
+            assertThat(cache.get(i)).isNull();
+        }
+        assertThat(serverCache.sizeLong(CachePeekMode.PRIMARY)).isZero();
+    }
+
+    @Test
+    public void cachesWithoutTopologyKeepTheDefaults() {
+        Cache cache = springCacheManager.getCache("other");
+        assertThat(nearEvictionPolicy(cache)).isInstanceOf(CountingLruEvictionPolicy.class);
+        @SuppressWarnings("unchecked")
+        CacheConfiguration<?, ?> cacheConfiguration = ((IgniteCache<?, ?>) cache.getNativeCache()).getConfiguration(CacheConfiguration.class);
+        assertThat(cacheConfiguration.getExpiryPolicyFactory().create().getExpiryForCreation()).isEqualTo(Duration.ETERNAL);
+    }
+
+    @Test
+    public void aFailedStartIsTriedAgain() {
+        assertThatThrownBy(() -> springCacheManager.getCache("misconfigured")).isInstanceOf(RuntimeException.class);
+        topologies.get("misconfigured").setPartitions(64);
+        assertThat(springCacheManager.getCache("misconfigured")).isNotNull();
+    }
+
+    private static CountingEvictionPolicy<?, ?> nearEvictionPolicy(Cache cache) {
+        @SuppressWarnings("unchecked")
+        CacheConfiguration<?, ?> cacheConfiguration = ((IgniteCache<?, ?>) cache.getNativeCache()).getConfiguration(CacheConfiguration.class);
+        return (CountingEvictionPolicy<?, ?>) cacheConfiguration.getNearConfiguration().getNearEvictionPolicy();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedLinesTest {
+
+    private Path file;
+
+    @Before
+    public void setup() throws IOException {
+        file = Files.createTempFile("mapped-lines", ".txt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Test
+    public void readsLinesWithEitherLineEnding() throws IOException {
+        write("one\ntwo\r\n\nthree");
+        assertThat(read(1024)).containsExactly("one", "two", "", "three");
+    }
+
+    @Test
+    public void dropsTrailingEmptyLine() throws IOException {
+        write("one\ntwo\n");
+        assertThat(read(1024)).containsExactly("one", "two");
+        write("");
+        assertThat(read(1024)).isEmpty();
+    }
+
+    @Test
+    public void linesCrossRegions() throws IOException {
+        write("first line\nsecond line\nthird, with utf-8 \u00e9\u00e8\nlast");
+        assertThat(read(24)).containsExactly("first line", "second line", "third, with utf-8 \u00e9\u00e8", "last");
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> read(long regionSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (MappedLines mappedLines = new MappedLines(file, regionSize)) {
+            mappedLines.forEachRemaining(lines::add);
+        }
+        return lines;
+    }
+
+}
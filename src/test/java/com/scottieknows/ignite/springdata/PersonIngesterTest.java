@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PersonIngesterTest {
+
+    @Test
+    public void parsesQuotedCsvFields() {
+        Person person = PersonIngester.parseCsv("7,,\"Smith, John\",\"O\"\"Brien\",1500.5,");
+        assertThat(person.getId()).isEqualTo(7L);
+        assertThat(person.getOrgId()).isNull();
+        assertThat(person.getFirstName()).isEqualTo("Smith, John");
+        assertThat(person.getLastName()).isEqualTo("O\"Brien");
+        assertThat(person.getSalary()).isEqualTo(1500.5);
+        assertThat(person.getResume()).isEmpty();
+    }
+
+    @Test
+    public void skipsBlankLines() {
+        List<String> lines = Arrays.asList("", "2,1,Jane,Doe,2000,", "  ", "\r", "3,1,Joe,Doe,3000,", "");
+        PersonIngester.ParsingIterator persons = new PersonIngester.ParsingIterator("", lines.iterator(), PersonIngester::parseCsv);
+        List<Long> ids = new ArrayList<>();
+        persons.forEachRemaining(person -> ids.add(person.getId()));
+        assertThat(ids).containsExactly(2L, 3L);
+    }
+
+}
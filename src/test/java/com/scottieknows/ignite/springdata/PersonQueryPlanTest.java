@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2018 Scott Feldstein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a 
+ * copy of this software and associated documentation files (the "Software"), 
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.scottieknows.ignite.springdata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.springdata.repository.config.Query;
+import org.apache.ignite.springdata.repository.query.IgniteQuery;
+import org.apache.ignite.springdata.repository.query.IgniteQueryGenerator;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+
+import com.scottieknows.ignite.TestCluster;
+
+/**
+ * The queries of {@link PersonRepository} use an index on every node instead of scanning the persons.
+ * The queries are taken from the repository, derived or declared, and explained on an empty cache.
+ */
+public class PersonQueryPlanTest {
+
+    private static final String SCAN = "__SCAN_";
+
+    private static TestCluster cluster;
+    private static Ignite ignite;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        cluster = new TestCluster();
+        IgniteSpringDataApplication application = new IgniteSpringDataApplication();
+        IgniteConfiguration cfg = cluster.configuration("queryPlanTest");
+        cfg.setCacheConfiguration(application.personCacheConfiguration(), application.organizationCacheConfiguration());
+        ignite = Ignition.start(cfg);
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        cluster.close();
+    }
+
+    @Test
+    public void findByFirstNameUsesTheFirstNameIndex() throws NoSuchMethodException {
+        assertThat(plan(derived("findByFirstName", String.class), "John"))
+            .contains("PERSON_FIRSTNAME_IDX").doesNotContain(SCAN);
+    }
+
+    @Test
+    public void findTopByLastNameStartingWithUsesTheLastNameIndex() throws NoSuchMethodException {
+        assertThat(plan(derived("findTopByLastNameStartingWith", String.class), "Smi"))
+            .contains("PERSON_LASTNAME_IDX").doesNotContain(SCAN);
+    }
+
+    @Test
+    public void selectIdAfterWalksTheIdIndex() throws NoSuchMethodException {
+        String sql = PersonRepository.class.getMethod("selectIdAfter", long.class, long.class, int.class)
+            .getAnnotation(Query.class).value();
+        assertThat(plan(sql, 0L, 100L, 10)).contains("PERSON_ID_IDX").doesNotContain(SCAN);
+    }
+
+    @Test
+    public void organizationQueriesUseTheOrganizationIndex() {
+        assertThat(plan("SELECT _key, _val FROM Person WHERE " + PersonRepositoryImpl.ORG_PAGE, 1L, 100L, 10))
+            .contains("PERSON_ORG_ID_IDX").doesNotContain(SCAN);
+        assertThat(plan(PersonRepositoryImpl.EMPLOYEES, 1L))
+            .contains("PERSON_ORG_ID_IDX").doesNotContain(SCAN);
+    }
+
+    private static String derived(String methodName, Class<?>... parameterTypes) throws NoSuchMethodException {
+        Method method = PersonRepository.class.getMethod(methodName, parameterTypes);
+        IgniteQuery query = IgniteQueryGenerator.generateSql(method, AbstractRepositoryMetadata.getMetadata(PersonRepository.class));
+        return query.sql();
+    }
+
+    /**
+     * @return the plan of the query that runs on every node
+     */
+    private static String plan(String sql, Object... args) {
+        SqlFieldsQuery explain = new SqlFieldsQuery("EXPLAIN " + sql);
+        explain.setArgs(args);
+        return (String) ignite.cache(PersonRepositoryImpl.PERSON_CACHE).query(explain).getAll().get(0).get(0);
+    }
+
+}